@@ -0,0 +1,41 @@
+package com.msinghal34.pinlockview;
+
+import com.msinghal34.pinlockview.core.KeyLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KeyLayoutBenchmark {
+
+    private final int[] mKeySet = {3, 1, 4, 5, 9, 2, 6, 8, 7, 0};
+    private final KeyLayout mKeyLayout = KeyLayout.DEFAULT.withKeyValues(mKeySet);
+
+    /**
+     * Compiling the tables of a shuffled layout, once per shuffle
+     */
+    @Benchmark
+    public KeyLayout withKeyValues() {
+        return KeyLayout.DEFAULT.withKeyValues(mKeySet);
+    }
+
+    /**
+     * Reading a key, once per bind and click
+     */
+    @Benchmark
+    public long readKey() {
+        long sum = 0;
+        for (int position = 0; position < mKeyLayout.getCellCount(); position++) {
+            sum += mKeyLayout.getType(position) + mKeyLayout.getValue(position) + mKeyLayout.getKeyId(position);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,51 @@
+package com.msinghal34.pinlockview;
+
+import com.msinghal34.pinlockview.core.PinBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the pin state transitions of {@link PinLockView}: appending a digit,
+ * deleting one and completing the pin, which wipes the buffer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PinBufferBenchmark {
+
+    @Param({"4", "6"})
+    public int pinLength;
+
+    private PinBuffer mPin;
+
+    @Setup
+    public void setUp() {
+        mPin = new PinBuffer(pinLength);
+    }
+
+    @Benchmark
+    public int appendAndDelete() {
+        mPin.append(7);
+        mPin.deleteLast();
+        return mPin.length();
+    }
+
+    @Benchmark
+    public int completeAndWipe() {
+        for (int i = 0; i < pinLength; i++) {
+            mPin.append(i);
+        }
+        boolean complete = mPin.isFull();
+        mPin.wipe();
+        return complete ? 1 : 0;
+    }
+}
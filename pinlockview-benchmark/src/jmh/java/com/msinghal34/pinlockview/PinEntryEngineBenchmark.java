@@ -0,0 +1,72 @@
+package com.msinghal34.pinlockview;
+
+import com.msinghal34.pinlockview.core.PinEntryEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the pin entry logic shared by the keypad views, without any rendering:
+ * typing and correcting a pin, and typing complete pins which are wiped on completion
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PinEntryEngineBenchmark {
+
+    @Param({"4", "6"})
+    public int pinLength;
+
+    private PinEntryEngine mEngine;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        mEngine = new PinEntryEngine(pinLength);
+        mEngine.setListener(new PinEntryEngine.Listener() {
+            @Override
+            public void onLengthChanged(int length) {
+                blackhole.consume(length);
+            }
+
+            @Override
+            public void onPinChange(int length) {
+                blackhole.consume(length);
+            }
+
+            @Override
+            public void onEmpty() {
+                blackhole.consume(0);
+            }
+
+            @Override
+            public boolean onComplete(boolean repeated) {
+                blackhole.consume(mEngine.getPin().charAt(0));
+                return true;
+            }
+        });
+    }
+
+    @Benchmark
+    public int typeAndDelete() {
+        mEngine.pressDigit(7);
+        mEngine.pressDelete();
+        return mEngine.length();
+    }
+
+    @Benchmark
+    public int typeCompletePin() {
+        for (int i = 0; i < pinLength; i++) {
+            mEngine.pressDigit(i);
+        }
+        return mEngine.length();
+    }
+}
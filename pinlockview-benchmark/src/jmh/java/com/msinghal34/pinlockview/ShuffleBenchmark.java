@@ -0,0 +1,31 @@
+package com.msinghal34.pinlockview;
+
+import com.msinghal34.pinlockview.core.ShuffleArrayUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single shuffle with a seeded {@link SecureRandom}, the work done in the background
+ * for every layout of the {@link com.msinghal34.pinlockview.core.LayoutShuffler} pool
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ShuffleBenchmark {
+
+    private final int[] mKeySet = {1, 2, 3, 4, 5, 6, 7, 8, 9, 0};
+    private final SecureRandom mRandom = new SecureRandom();
+
+    @Benchmark
+    public int[] shuffle() {
+        return ShuffleArrayUtils.shuffle(mKeySet, mRandom);
+    }
+}
@@ -0,0 +1,60 @@
+package com.msinghal34.pinlockview;
+
+import com.msinghal34.pinlockview.core.ShuffleArrayUtils;
+
+import java.security.SecureRandom;
+
+/**
+ * Checks that {@link ShuffleArrayUtils#shuffle(int[], java.util.Random)} puts every key in every position with the same probability,
+ * so that making the shuffle faster can't quietly bias the keypad layout.
+ * <p/>
+ * Runs a chi-squared test over the key by position counts of many shuffles, and exits with an error
+ * when the statistic exceeds the 99.9th percentile of the expected distribution.
+ */
+public class ShuffleUniformityCheck {
+
+    private static final int SHUFFLE_COUNT = 1_000_000;
+    private static final double Z_999 = 3.090232;
+
+    public static void main(String[] args) {
+        int[] keySet = {1, 2, 3, 4, 5, 6, 7, 8, 9, 0};
+        int keyCount = keySet.length;
+        long[][] counts = new long[keyCount][keyCount];
+        SecureRandom random = new SecureRandom();
+
+        for (int i = 0; i < SHUFFLE_COUNT; i++) {
+            ShuffleArrayUtils.shuffle(keySet, random);
+            for (int position = 0; position < keyCount; position++) {
+                counts[keySet[position]][position]++;
+            }
+        }
+
+        double expected = (double) SHUFFLE_COUNT / keyCount;
+        double chiSquared = 0;
+        for (long[] keyCounts : counts) {
+            for (long count : keyCounts) {
+                double difference = count - expected;
+                chiSquared += difference * difference / expected;
+            }
+        }
+
+        int degreesOfFreedom = (keyCount - 1) * (keyCount - 1);
+        double critical = chiSquaredQuantile(degreesOfFreedom, Z_999);
+        System.out.printf("chi-squared: %.2f, critical value: %.2f (%d degrees of freedom)%n",
+                chiSquared, critical, degreesOfFreedom);
+
+        if (chiSquared > critical) {
+            System.err.println("The keypad shuffle is biased");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Wilson-Hilferty approximation of a chi-squared quantile, accurate enough for this many degrees of freedom
+     */
+    private static double chiSquaredQuantile(int degreesOfFreedom, double z) {
+        double k = degreesOfFreedom;
+        double term = 1 - 2 / (9 * k) + z * Math.sqrt(2 / (9 * k));
+        return k * term * term * term;
+    }
+}
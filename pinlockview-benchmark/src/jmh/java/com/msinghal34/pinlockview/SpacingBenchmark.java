@@ -0,0 +1,36 @@
+package com.msinghal34.pinlockview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the offsets computed by {@link ItemSpaceDecoration} for a whole keypad
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SpacingBenchmark {
+
+    private static final int KEY_COUNT = 12;
+
+    @Param({"false", "true"})
+    public boolean includeEdge;
+
+    private final int[] mOffsets = new int[4];
+
+    @Benchmark
+    public void keypadItemOffsets(Blackhole blackhole) {
+        for (int position = 0; position < KEY_COUNT; position++) {
+            SpacingUtils.getItemOffsets(position, 3, 96, 36, includeEdge, mOffsets);
+            blackhole.consume(mOffsets);
+        }
+    }
+}
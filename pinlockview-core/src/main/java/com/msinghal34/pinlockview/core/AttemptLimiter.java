@@ -0,0 +1,175 @@
+package com.msinghal34.pinlockview.core;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Counts the consecutive failed attempts at entering a pin and locks further attempts out
+ * for exponentially growing windows.
+ * <p/>
+ * The first {@link #getFreeAttempts()} failures are free. Every failure after that starts a lockout,
+ * of {@link #getBaseLockoutMillis()} for the first one, doubling with each failure up to
+ * {@link #getMaxLockoutMillis()}. A success resets the count.
+ * <p/>
+ * The state is safe to update from any thread. It is loaded from a {@link Store} when the limiter is created
+ * and written back on the given executor, a burst of updates being coalesced into a single write.
+ * As loading may read from disk, create the limiter early, e.g. with the rest of the app state, or off the
+ * main thread, rather than when the keypad is inflated.
+ */
+public final class AttemptLimiter {
+
+    public static final int DEFAULT_FREE_ATTEMPTS = 5;
+    public static final long DEFAULT_BASE_LOCKOUT_MILLIS = 30_000L;
+    public static final long DEFAULT_MAX_LOCKOUT_MILLIS = 60 * 60_000L;
+
+    private final int mFreeAttempts;
+    private final long mBaseLockoutMillis;
+    private final long mMaxLockoutMillis;
+    private final Clock mClock;
+    private final Store mStore;
+    private final Executor mWriteExecutor;
+    private final Runnable mWriteTask = this::write;
+
+    private int mFailureCount;
+    private long mLockoutEndMillis;
+    private boolean mWritePending;
+
+    public AttemptLimiter(Store store, Executor writeExecutor) {
+        this(DEFAULT_FREE_ATTEMPTS, DEFAULT_BASE_LOCKOUT_MILLIS, DEFAULT_MAX_LOCKOUT_MILLIS, Clock.SYSTEM, store, writeExecutor);
+    }
+
+    /**
+     * @param freeAttempts      the number of failures allowed before the first lockout
+     * @param baseLockoutMillis the duration of the first lockout
+     * @param maxLockoutMillis  the longest lockout
+     * @param clock             the clock measuring the lockouts, the wall clock so that they survive a reboot
+     * @param store             the store holding the state across processes
+     * @param writeExecutor     the executor the store is written on
+     */
+    public AttemptLimiter(int freeAttempts, long baseLockoutMillis, long maxLockoutMillis,
+                          Clock clock, Store store, Executor writeExecutor) {
+        if (freeAttempts < 0 || baseLockoutMillis <= 0 || maxLockoutMillis < baseLockoutMillis) {
+            throw new IllegalArgumentException("Invalid policy: " + freeAttempts + " free attempts, lockouts from "
+                    + baseLockoutMillis + " to " + maxLockoutMillis + " ms");
+        }
+        this.mFreeAttempts = freeAttempts;
+        this.mBaseLockoutMillis = baseLockoutMillis;
+        this.mMaxLockoutMillis = maxLockoutMillis;
+        this.mClock = clock;
+        this.mStore = store;
+        this.mWriteExecutor = writeExecutor;
+
+        this.mFailureCount = Math.max(0, store.readFailureCount());
+        this.mLockoutEndMillis = store.readLockoutEndMillis();
+    }
+
+    public int getFreeAttempts() {
+        return mFreeAttempts;
+    }
+
+    public long getBaseLockoutMillis() {
+        return mBaseLockoutMillis;
+    }
+
+    public long getMaxLockoutMillis() {
+        return mMaxLockoutMillis;
+    }
+
+    public synchronized int getFailureCount() {
+        return mFailureCount;
+    }
+
+    /**
+     * Gets the time left before another attempt is allowed. A lockout never lasts longer than
+     * {@link #getMaxLockoutMillis()} from now, should the clock be set back.
+     *
+     * @return the remaining lockout in milliseconds, 0 if attempts are allowed
+     */
+    public synchronized long getRemainingLockoutMillis() {
+        long remaining = mLockoutEndMillis - mClock.currentTimeMillis();
+        return remaining <= 0 ? 0 : Math.min(remaining, mMaxLockoutMillis);
+    }
+
+    public boolean isLockedOut() {
+        return getRemainingLockoutMillis() > 0;
+    }
+
+    /**
+     * Records a failed attempt, starting a lockout once the free attempts are used up
+     *
+     * @return the lockout started by this failure in milliseconds, 0 if none
+     */
+    public synchronized long recordFailure() {
+        mFailureCount++;
+        long lockoutMillis = getLockoutMillis(mFailureCount);
+        if (lockoutMillis > 0) {
+            mLockoutEndMillis = mClock.currentTimeMillis() + lockoutMillis;
+        }
+        scheduleWrite();
+        return lockoutMillis;
+    }
+
+    /**
+     * Records a successful attempt, resetting the failure count
+     */
+    public synchronized void recordSuccess() {
+        if (mFailureCount == 0 && mLockoutEndMillis == 0) {
+            return;
+        }
+        mFailureCount = 0;
+        mLockoutEndMillis = 0;
+        scheduleWrite();
+    }
+
+    private long getLockoutMillis(int failureCount) {
+        int lockouts = failureCount - mFreeAttempts;
+        if (lockouts <= 0) {
+            return 0;
+        }
+        long lockoutMillis = mBaseLockoutMillis;
+        for (int i = 1; i < lockouts && lockoutMillis < mMaxLockoutMillis; i++) {
+            lockoutMillis <<= 1;
+        }
+        return Math.min(lockoutMillis, mMaxLockoutMillis);
+    }
+
+    private void scheduleWrite() {
+        if (!mWritePending) {
+            mWritePending = true;
+            mWriteExecutor.execute(mWriteTask);
+        }
+    }
+
+    private void write() {
+        int failureCount;
+        long lockoutEndMillis;
+        synchronized (this) {
+            mWritePending = false;
+            failureCount = mFailureCount;
+            lockoutEndMillis = mLockoutEndMillis;
+        }
+        mStore.write(failureCount, lockoutEndMillis);
+    }
+
+    /**
+     * The source of the current time, replaceable in tests
+     */
+    public interface Clock {
+
+        Clock SYSTEM = System::currentTimeMillis;
+
+        long currentTimeMillis();
+    }
+
+    /**
+     * Persists the state of an {@link AttemptLimiter}. The reads happen once when the limiter is created,
+     * the writes on the executor of the limiter, one at a time as long as the executor is serial.
+     */
+    public interface Store {
+
+        int readFailureCount();
+
+        long readLockoutEndMillis();
+
+        void write(int failureCount, long lockoutEndMillis);
+    }
+}
@@ -0,0 +1,349 @@
+package com.msinghal34.pinlockview.core;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+
+/**
+ * An immutable description of the keys of a keypad, a grid of cells each holding a digit, the delete key,
+ * a function key or nothing.
+ * <p/>
+ * The layout is compiled once into flat tables indexed by the position of the cell, in row major order, so that
+ * binding, drawing and clicking a key only read arrays. Every key also gets an id, stable across the layouts
+ * which only move the keys around, as {@link #withKeyValues(int[])} does to shuffle the digits.
+ */
+public final class KeyLayout {
+
+    private static final int STANDARD_COLUMN_COUNT = 3;
+    private static final int STANDARD_ROW_COUNT = 4;
+    private static final int STANDARD_KEY_COUNT = 10;
+
+    /**
+     * The labels of the digits, shared by every layout so that an unchanged label is the same instance
+     */
+    private static final String[] DIGIT_LABELS = new String[Character.MAX_RADIX];
+
+    static {
+        for (int value = 0; value < DIGIT_LABELS.length; value++) {
+            DIGIT_LABELS[value] = String.valueOf(PinBuffer.toDigitChar(value));
+        }
+    }
+
+    /**
+     * The standard keypad, three columns of 1 to 9, then 0 between an empty cell and the delete key.
+     * Declared after the labels, which must be initialized first
+     */
+    public static final KeyLayout DEFAULT = standard(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 0});
+
+    private final int mRowCount;
+    private final int mColumnCount;
+    private final int[] mTypes;
+    private final int[] mValues;
+    private final String[] mLabels;
+    private final long[] mKeyIds;
+    private final int[] mDigitPositions;
+    private final long mDigitMask;
+    private final boolean mHasDeleteKey;
+
+    private KeyLayout(int rowCount, int columnCount, int[] types, int[] values, String[] labels) {
+        this.mRowCount = rowCount;
+        this.mColumnCount = columnCount;
+        this.mTypes = types;
+        this.mValues = values;
+        this.mLabels = labels;
+        this.mKeyIds = new long[types.length];
+
+        int digitCount = 0;
+        long digitMask = 0;
+        boolean hasDeleteKey = false;
+        for (int position = 0; position < types.length; position++) {
+            if (types[position] == KeyType.DIGIT) {
+                digitCount++;
+                digitMask |= 1L << values[position];
+            } else if (types[position] == KeyType.DELETE) {
+                hasDeleteKey = true;
+            }
+            if (labels[position] == null && types[position] == KeyType.DIGIT) {
+                labels[position] = DIGIT_LABELS[values[position]];
+            }
+            mKeyIds[position] = getKeyId(types, values, position);
+        }
+        this.mDigitMask = digitMask;
+        this.mHasDeleteKey = hasDeleteKey;
+
+        this.mDigitPositions = new int[digitCount];
+        for (int position = 0, digit = 0; position < types.length; position++) {
+            if (types[position] == KeyType.DIGIT) {
+                mDigitPositions[digit++] = position;
+            }
+        }
+    }
+
+    /**
+     * An id made of the type, the value and the number of identical keys before, so that repeated keys stay apart
+     */
+    private static long getKeyId(int[] types, int[] values, int position) {
+        int occurrence = 0;
+        for (int i = 0; i < position; i++) {
+            if (types[i] == types[position] && values[i] == values[position]) {
+                occurrence++;
+            }
+        }
+        return ((long) types[position] << 48) | ((long) occurrence << 32) | (values[position] & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Lays out ten keys the standard way, three per row, the last one between an empty cell and the delete key
+     *
+     * @param keyValues the ten key values, in the order they are shown
+     * @return the layout
+     */
+    @NonNull
+    public static KeyLayout standard(@NonNull int[] keyValues) {
+        if (keyValues.length != STANDARD_KEY_COUNT) {
+            throw new IllegalArgumentException("The standard layout takes " + STANDARD_KEY_COUNT
+                    + " keys, got " + keyValues.length);
+        }
+        Builder builder = new Builder(STANDARD_ROW_COUNT, STANDARD_COLUMN_COUNT);
+        for (int i = 0; i < STANDARD_KEY_COUNT - 1; i++) {
+            builder.digit(i, keyValues[i]);
+        }
+        return builder.digit(10, keyValues[STANDARD_KEY_COUNT - 1])
+                .delete(11)
+                .build();
+    }
+
+    public int getRowCount() {
+        return mRowCount;
+    }
+
+    public int getColumnCount() {
+        return mColumnCount;
+    }
+
+    public int getCellCount() {
+        return mTypes.length;
+    }
+
+    @KeyType
+    public int getType(int position) {
+        return mTypes[position];
+    }
+
+    /**
+     * The value of the digit, or the id of the function key, at a position, 0 for the other cells
+     */
+    public int getValue(int position) {
+        return mValues[position];
+    }
+
+    /**
+     * The text shown on a key, null for the delete key and empty cells
+     */
+    @Nullable
+    public String getLabel(int position) {
+        return mLabels[position];
+    }
+
+    /**
+     * The id of the key at a position, unique within the layout and kept by the key when it moves
+     */
+    public long getKeyId(int position) {
+        return mKeyIds[position];
+    }
+
+    public boolean hasDeleteKey() {
+        return mHasDeleteKey;
+    }
+
+    public int getDigitCount() {
+        return mDigitPositions.length;
+    }
+
+    /**
+     * Whether every character of a sequence can be typed on this layout, e.g. before entering it at once
+     *
+     * @param digits the digits, '0' to '9' then 'A' to 'Z' in either case
+     * @return true if each digit has a key
+     */
+    public boolean hasDigits(@NonNull CharSequence digits) {
+        for (int i = 0; i < digits.length(); i++) {
+            int value = Character.digit(digits.charAt(i), Character.MAX_RADIX);
+            if (value < 0 || (mDigitMask & (1L << value)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The values of the digits, in the order they are shown
+     *
+     * @return a new array of the values
+     */
+    @NonNull
+    public int[] getKeyValues() {
+        int[] keyValues = new int[mDigitPositions.length];
+        for (int i = 0; i < keyValues.length; i++) {
+            keyValues[i] = mValues[mDigitPositions[i]];
+        }
+        return keyValues;
+    }
+
+    /**
+     * Gets the same layout with other values on the digit keys, as when shuffling them. A digit given its own
+     * label takes it along to its new position, the other keys are left as they are.
+     *
+     * @param keyValues the values of the digits, in the order they are shown
+     * @return the new layout
+     */
+    @NonNull
+    public KeyLayout withKeyValues(@NonNull int[] keyValues) {
+        if (keyValues.length != mDigitPositions.length) {
+            throw new IllegalArgumentException("The layout has " + mDigitPositions.length
+                    + " digit keys, got " + keyValues.length + " values");
+        }
+        // The custom labels by value, the default ones are regenerated for the new values
+        String[] customLabels = new String[Character.MAX_RADIX];
+        for (int position : mDigitPositions) {
+            int value = mValues[position];
+            if (mLabels[position] != DIGIT_LABELS[value] && customLabels[value] == null) {
+                customLabels[value] = mLabels[position];
+            }
+        }
+
+        int[] values = mValues.clone();
+        String[] labels = mLabels.clone();
+        for (int i = 0; i < keyValues.length; i++) {
+            int position = mDigitPositions[i];
+            checkDigit(keyValues[i]);
+            values[position] = keyValues[i];
+            labels[position] = customLabels[keyValues[i]];
+        }
+        return new KeyLayout(mRowCount, mColumnCount, mTypes, values, labels);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeyLayout)) {
+            return false;
+        }
+        KeyLayout other = (KeyLayout) o;
+        return mColumnCount == other.mColumnCount
+                && Arrays.equals(mTypes, other.mTypes)
+                && Arrays.equals(mValues, other.mValues)
+                && Arrays.equals(mLabels, other.mLabels);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(mTypes) + Arrays.hashCode(mValues)) + mColumnCount;
+    }
+
+    private static void checkDigit(int value) {
+        if (value < 0 || value >= Character.MAX_RADIX) {
+            throw new IllegalArgumentException("Invalid digit: " + value);
+        }
+    }
+
+    @IntDef({KeyType.EMPTY, KeyType.DIGIT, KeyType.DELETE, KeyType.FUNCTION})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface KeyType {
+        int EMPTY = 0;
+        int DIGIT = 1;
+        int DELETE = 2;
+        int FUNCTION = 3;
+    }
+
+    /**
+     * Builds a {@link KeyLayout} cell by cell, the cells left unset stay empty
+     */
+    public static final class Builder {
+
+        private final int mRowCount;
+        private final int mColumnCount;
+        private final int[] mTypes;
+        private final int[] mValues;
+        private final String[] mLabels;
+
+        public Builder(int rowCount, int columnCount) {
+            if (rowCount < 1 || columnCount < 1) {
+                throw new IllegalArgumentException("Invalid grid: " + rowCount + "x" + columnCount);
+            }
+            this.mRowCount = rowCount;
+            this.mColumnCount = columnCount;
+            this.mTypes = new int[rowCount * columnCount];
+            this.mValues = new int[mTypes.length];
+            this.mLabels = new String[mTypes.length];
+        }
+
+        /**
+         * Puts a digit, labelled with its uppercase character, 10 being A as in a hexadecimal keypad
+         *
+         * @param position the cell, in row major order
+         * @param value    the value entered in the pin, between 0 and 35
+         */
+        @NonNull
+        public Builder digit(int position, int value) {
+            return digit(position, value, null);
+        }
+
+        /**
+         * Puts a digit with its own label, e.g. a glyph
+         *
+         * @param position the cell, in row major order
+         * @param value    the value entered in the pin, between 0 and 35
+         * @param label    the label, null for the default one
+         */
+        @NonNull
+        public Builder digit(int position, int value, @Nullable String label) {
+            checkDigit(value);
+            return set(position, KeyType.DIGIT, value, label);
+        }
+
+        @NonNull
+        public Builder delete(int position) {
+            return set(position, KeyType.DELETE, 0, null);
+        }
+
+        /**
+         * Puts a function key, reported to the function key listener of the keypad instead of entering a digit
+         *
+         * @param position   the cell, in row major order
+         * @param functionId the id reported when the key is clicked
+         * @param label      the label
+         */
+        @NonNull
+        public Builder function(int position, int functionId, @NonNull String label) {
+            return set(position, KeyType.FUNCTION, functionId, label);
+        }
+
+        @NonNull
+        public Builder empty(int position) {
+            return set(position, KeyType.EMPTY, 0, null);
+        }
+
+        @NonNull
+        public KeyLayout build() {
+            return new KeyLayout(mRowCount, mColumnCount, mTypes.clone(), mValues.clone(), mLabels.clone());
+        }
+
+        private Builder set(int position, int type, int value, String label) {
+            if (position < 0 || position >= mTypes.length) {
+                throw new IndexOutOfBoundsException("Invalid position " + position + " in a "
+                        + mRowCount + "x" + mColumnCount + " layout");
+            }
+            mTypes[position] = type;
+            mValues[position] = value;
+            mLabels[position] = label;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.msinghal34.pinlockview.core;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size histogram of latencies, recording without allocating.
+ * <p/>
+ * Values are kept with a microsecond resolution in log-linear buckets, 16 per power of two, so every
+ * percentile is within about 6% of the recorded value, from a microsecond up to minutes. Recording and
+ * reading are safe from any thread.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // Exponents past 2^31 us, over half an hour, all land in the last bucket
+    private static final int MAX_EXPONENT = 31;
+    private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final long[] mCounts = new long[BUCKET_COUNT];
+    private long mCount;
+    private long mTotalNanos;
+    private long mMaxNanos;
+
+    /**
+     * Records a latency, negative values counting as 0
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        mCounts[getBucket(nanos / 1000)]++;
+        mCount++;
+        mTotalNanos += nanos;
+        mMaxNanos = Math.max(mMaxNanos, nanos);
+    }
+
+    public synchronized long getCount() {
+        return mCount;
+    }
+
+    public synchronized long getMaxNanos() {
+        return mMaxNanos;
+    }
+
+    public synchronized long getMeanNanos() {
+        return mCount == 0 ? 0 : mTotalNanos / mCount;
+    }
+
+    /**
+     * Gets the latency under which the given share of the values fall
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in nanoseconds, 0 if nothing was recorded
+     */
+    public synchronized long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+        if (mCount == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * mCount));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += mCounts[bucket];
+            if (seen >= rank) {
+                return bucket == BUCKET_COUNT - 1 ? mMaxNanos : Math.min(getBucketUpperMicros(bucket) * 1000, mMaxNanos);
+            }
+        }
+        return mMaxNanos;
+    }
+
+    public long getP50Nanos() {
+        return getPercentileNanos(50);
+    }
+
+    public long getP95Nanos() {
+        return getPercentileNanos(95);
+    }
+
+    public long getP99Nanos() {
+        return getPercentileNanos(99);
+    }
+
+    /**
+     * Clears every value recorded so far
+     */
+    public synchronized void reset() {
+        Arrays.fill(mCounts, 0);
+        mCount = 0;
+        mTotalNanos = 0;
+        mMaxNanos = 0;
+    }
+
+    private static int getBucket(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT + 1);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (micros >> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long getBucketUpperMicros(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lower = (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
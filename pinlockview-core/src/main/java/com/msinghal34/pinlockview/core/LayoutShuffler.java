@@ -0,0 +1,109 @@
+package com.msinghal34.pinlockview.core;
+
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * Hands out shuffled keypad layouts drawn with a {@link SecureRandom}, from a small pool of permutations
+ * generated ahead of time on a background executor.
+ * <p/>
+ * Seeding a {@link SecureRandom} and drawing from it can take tens of milliseconds, so both happen on the
+ * refill executor, the pool being filled as soon as the shuffler is created. Taking a layout is O(1) and only
+ * falls back to shuffling on the calling thread when the pool has run dry, so create the shuffler ahead of
+ * the first layout taken.
+ */
+public final class LayoutShuffler {
+
+    public static final int DEFAULT_POOL_SIZE = 4;
+
+    private final int[] mKeySet;
+    private final int mPoolSize;
+    private final Executor mRefillExecutor;
+    private final ArrayDeque<int[]> mPool;
+    private final Runnable mRefillTask = this::refill;
+
+    private SecureRandom mRandom;
+    private boolean mRefillPending;
+
+    public LayoutShuffler(int[] keySet, Executor refillExecutor) {
+        this(keySet, DEFAULT_POOL_SIZE, refillExecutor);
+    }
+
+    /**
+     * @param keySet         the keys to shuffle, copied
+     * @param poolSize       the number of layouts kept ready
+     * @param refillExecutor the executor generating the layouts, and creating the random generator, which it
+     *                       is given right away to fill the pool
+     */
+    public LayoutShuffler(int[] keySet, int poolSize, Executor refillExecutor) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Invalid pool size: " + poolSize);
+        }
+        this.mKeySet = keySet.clone();
+        this.mPoolSize = poolSize;
+        this.mRefillExecutor = refillExecutor;
+        this.mPool = new ArrayDeque<>(poolSize);
+        scheduleRefill();
+    }
+
+    /**
+     * Tops the pool up in the background if it isn't full, nor already being filled
+     */
+    public void prefill() {
+        scheduleRefill();
+    }
+
+    /**
+     * Takes a shuffled layout, and schedules a refill of the pool
+     *
+     * @return a new shuffled copy of the key set, owned by the caller
+     */
+    public int[] next() {
+        int[] layout;
+        synchronized (this) {
+            layout = mPool.poll();
+        }
+        scheduleRefill();
+        return layout != null ? layout : shuffle();
+    }
+
+    private void scheduleRefill() {
+        synchronized (this) {
+            if (mRefillPending || mPool.size() >= mPoolSize) {
+                return;
+            }
+            mRefillPending = true;
+        }
+        mRefillExecutor.execute(mRefillTask);
+    }
+
+    private void refill() {
+        while (true) {
+            int[] layout = shuffle();
+            synchronized (this) {
+                if (mPool.size() >= mPoolSize) {
+                    mRefillPending = false;
+                    return;
+                }
+                mPool.offer(layout);
+                if (mPool.size() >= mPoolSize) {
+                    mRefillPending = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    private int[] shuffle() {
+        SecureRandom random;
+        synchronized (this) {
+            if (mRandom == null) {
+                mRandom = new SecureRandom();
+            }
+            random = mRandom;
+        }
+        // SecureRandom is thread safe, only the layout itself is confined to this thread
+        return ShuffleArrayUtils.shuffle(mKeySet.clone(), random);
+    }
+}
@@ -0,0 +1,123 @@
+package com.msinghal34.pinlockview.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * A fixed capacity, wipeable buffer holding the digits entered in a {@link PinEntryEngine}.
+ * <p/>
+ * Appending and deleting digits never allocates, and the backing array can be zeroed
+ * as soon as the pin is no longer needed. The buffer is exposed to listeners as a
+ * {@link CharSequence} view which is only valid for the duration of the callback.
+ */
+public final class PinBuffer implements CharSequence {
+
+    private char[] mDigits;
+    private int mLength;
+
+    public PinBuffer(int capacity) {
+        mDigits = new char[capacity];
+    }
+
+    /**
+     * Changes the capacity of the buffer, wiping any digits held so far
+     *
+     * @param capacity the new capacity
+     */
+    public void setCapacity(int capacity) {
+        wipe();
+        if (capacity != mDigits.length) {
+            mDigits = new char[capacity];
+        }
+    }
+
+    public int capacity() {
+        return mDigits.length;
+    }
+
+    public boolean isFull() {
+        return mLength == mDigits.length;
+    }
+
+    public boolean isEmpty() {
+        return mLength == 0;
+    }
+
+    /**
+     * Appends a key value to the buffer
+     *
+     * @param keyValue the key value, between 0 and 35
+     * @return true if the digit was appended, false if the buffer is full
+     */
+    public boolean append(int keyValue) {
+        if (mLength == mDigits.length) {
+            return false;
+        }
+        mDigits[mLength++] = toDigitChar(keyValue);
+        return true;
+    }
+
+    /**
+     * The character of a key value in the pin, the same as the default label of its key
+     *
+     * @param keyValue the key value, between 0 and 35
+     * @return '0' to '9', then uppercase 'A' to 'Z'
+     */
+    static char toDigitChar(int keyValue) {
+        return Character.toUpperCase(Character.forDigit(keyValue, Character.MAX_RADIX));
+    }
+
+    /**
+     * Removes the last digit from the buffer, zeroing its slot
+     *
+     * @return true if a digit was removed, false if the buffer was empty
+     */
+    public boolean deleteLast() {
+        if (mLength == 0) {
+            return false;
+        }
+        mDigits[--mLength] = 0;
+        return true;
+    }
+
+    /**
+     * Zeroes the backing array and empties the buffer
+     */
+    public void wipe() {
+        Arrays.fill(mDigits, (char) 0);
+        mLength = 0;
+    }
+
+    @Override
+    public int length() {
+        return mLength;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= mLength) {
+            throw new IndexOutOfBoundsException("index: " + index + ", length: " + mLength);
+        }
+        return mDigits[index];
+    }
+
+    @NonNull
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > mLength || start > end) {
+            throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + mLength);
+        }
+        return new String(mDigits, start, end - start);
+    }
+
+    /**
+     * Creates an immutable copy of the digits. Avoid calling this unless a {@link String} is really needed,
+     * as the copy can not be wiped
+     */
+    @NonNull
+    @Override
+    public String toString() {
+        return new String(mDigits, 0, mLength);
+    }
+}
@@ -0,0 +1,265 @@
+package com.msinghal34.pinlockview.core;
+
+import androidx.annotation.NonNull;
+
+/**
+ * The pin entry state machine behind the keypad views, free of any Android dependency.
+ * <p/>
+ * It only knows about key presses, so the same logic can be driven by the on screen keypad,
+ * a hardware keypad or a test. Every event carries primitive values only, the digits themselves
+ * are read from {@link #getPin()} while the event is being dispatched.
+ * <p/>
+ * The engine is not thread safe, all the calls are expected to come from the same thread.
+ */
+public final class PinEntryEngine {
+
+    private final PinBuffer mPin;
+    private int mPinLength;
+    private boolean mRestartOnOverflow;
+    private Listener mListener;
+
+    public PinEntryEngine(int pinLength) {
+        checkPinLength(pinLength);
+        this.mPinLength = pinLength;
+        this.mPin = new PinBuffer(pinLength);
+    }
+
+    public void setListener(Listener listener) {
+        this.mListener = listener;
+    }
+
+    public int getPinLength() {
+        return mPinLength;
+    }
+
+    /**
+     * Sets the number of digits in the pin, wiping any digits entered so far without any event
+     *
+     * @param pinLength the pin length
+     */
+    public void setPinLength(int pinLength) {
+        checkPinLength(pinLength);
+        this.mPinLength = pinLength;
+        mPin.setCapacity(pinLength);
+    }
+
+    public boolean isRestartOnOverflow() {
+        return mRestartOnOverflow;
+    }
+
+    /**
+     * Sets what happens to a digit pressed while the pin is full. By default the completion is reported
+     * again, when restarting the digit replaces the whole pin instead.
+     *
+     * @param restartOnOverflow true to start a new pin on overflow
+     */
+    public void setRestartOnOverflow(boolean restartOnOverflow) {
+        this.mRestartOnOverflow = restartOnOverflow;
+    }
+
+    /**
+     * The digits entered so far, as a view on the wipeable buffer. Only valid until the next call on the engine.
+     */
+    @NonNull
+    public CharSequence getPin() {
+        return mPin;
+    }
+
+    public int length() {
+        return mPin.length();
+    }
+
+    public boolean isFull() {
+        return mPin.isFull();
+    }
+
+    /**
+     * Enters a key
+     *
+     * @param keyValue the key value, between 0 and 35
+     */
+    public void pressDigit(int keyValue) {
+        if (keyValue < 0 || keyValue >= Character.MAX_RADIX) {
+            throw new IllegalArgumentException("Invalid key value: " + keyValue);
+        }
+
+        if (!mPin.isFull()) {
+            mPin.append(keyValue);
+            dispatchLengthChanged();
+
+            if (mPin.isFull()) {
+                if (mListener != null && mListener.onComplete(false)) {
+                    reset();
+                }
+            } else if (mListener != null) {
+                mListener.onPinChange(mPin.length());
+            }
+        } else if (mRestartOnOverflow) {
+            reset();
+            mPin.append(keyValue);
+            dispatchLengthChanged();
+
+            if (mListener != null) {
+                mListener.onPinChange(mPin.length());
+            }
+        } else if (mListener != null) {
+            mListener.onComplete(true);
+        }
+    }
+
+    /**
+     * Enters a sequence of digits at once, as if they were typed, but with a single event. The digits are
+     * appended to the ones entered so far, and reported by one {@link Listener#onLengthChanged(int)} followed
+     * by one {@link Listener#onPinChange(int)} or {@link Listener#onComplete(boolean)}.
+     * <p/>
+     * Nothing is entered unless the whole sequence is valid.
+     *
+     * @param digits the digits to enter, '0' to '9' then 'A' to 'Z' in either case for the key values 10 to 35
+     * @return true if the digits were entered, false if the sequence holds anything but such digits
+     * or doesn't fit in the pin
+     */
+    public boolean enterDigits(@NonNull CharSequence digits) {
+        int count = digits.length();
+        if (count > mPinLength - mPin.length()) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (Character.digit(digits.charAt(i), Character.MAX_RADIX) < 0) {
+                return false;
+            }
+        }
+        if (count == 0) {
+            return true;
+        }
+
+        for (int i = 0; i < count; i++) {
+            mPin.append(Character.digit(digits.charAt(i), Character.MAX_RADIX));
+        }
+        dispatchLengthChanged();
+
+        if (mPin.isFull()) {
+            if (mListener != null && mListener.onComplete(false)) {
+                reset();
+            }
+        } else if (mListener != null) {
+            mListener.onPinChange(mPin.length());
+        }
+        return true;
+    }
+
+    /**
+     * Copies the digits entered so far, e.g. to save the state of a keypad. The copy holds the pin,
+     * it should be zeroed as soon as it is no longer needed.
+     *
+     * @return the key values of the digits, between 0 and 35
+     */
+    @NonNull
+    public byte[] copyDigits() {
+        byte[] digits = new byte[mPin.length()];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = (byte) Character.digit(mPin.charAt(i), Character.MAX_RADIX);
+        }
+        return digits;
+    }
+
+    /**
+     * Replaces the digits entered so far, e.g. when restoring the state of a keypad. Only
+     * {@link Listener#onLengthChanged(int)} is reported, the digits having already been reported once.
+     * A complete pin is not restored, it would otherwise be reported twice or never.
+     *
+     * @param digits the key values of the digits, between 0 and 35, left untouched
+     * @return true if the digits were restored
+     */
+    public boolean restoreDigits(@NonNull byte[] digits) {
+        if (digits.length >= mPinLength) {
+            return false;
+        }
+        for (byte digit : digits) {
+            if (digit < 0 || digit >= Character.MAX_RADIX) {
+                return false;
+            }
+        }
+
+        mPin.wipe();
+        for (byte digit : digits) {
+            mPin.append(digit);
+        }
+        dispatchLengthChanged();
+        return true;
+    }
+
+    /**
+     * Deletes the last digit, reporting an empty pin if there was nothing left to delete
+     */
+    public void pressDelete() {
+        if (mPin.deleteLast()) {
+            dispatchLengthChanged();
+
+            if (mListener != null) {
+                if (mPin.isEmpty()) {
+                    mListener.onEmpty();
+                } else {
+                    mListener.onPinChange(mPin.length());
+                }
+            }
+        } else if (mListener != null) {
+            mListener.onEmpty();
+        }
+    }
+
+    /**
+     * Wipes the digits entered so far
+     */
+    public void reset() {
+        if (mPin.isEmpty()) {
+            return;
+        }
+        mPin.wipe();
+        dispatchLengthChanged();
+    }
+
+    private void dispatchLengthChanged() {
+        if (mListener != null) {
+            mListener.onLengthChanged(mPin.length());
+        }
+    }
+
+    private static void checkPinLength(int pinLength) {
+        if (pinLength < 1) {
+            throw new IllegalArgumentException("Pin length must be at least 1, was " + pinLength);
+        }
+    }
+
+    /**
+     * Receives the events of a {@link PinEntryEngine}
+     */
+    public interface Listener {
+
+        /**
+         * Triggers whenever the number of digits changes, including when the pin is wiped
+         *
+         * @param length the number of digits entered
+         */
+        void onLengthChanged(int length);
+
+        /**
+         * Triggers on a digit entered or deleted that leaves the pin neither complete nor empty
+         *
+         * @param length the number of digits entered
+         */
+        void onPinChange(int length);
+
+        /**
+         * Triggers when the last digit is deleted, or delete is pressed on an empty pin
+         */
+        void onEmpty();
+
+        /**
+         * Triggers when the pin is complete, the digits are available from {@link PinEntryEngine#getPin()}
+         *
+         * @param repeated true if the pin was already complete and another digit was pressed
+         * @return true to wipe the pin, ignored when repeated
+         */
+        boolean onComplete(boolean repeated);
+    }
+}
@@ -0,0 +1,65 @@
+package com.msinghal34.pinlockview.core;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * An immutable event of a keypad, published to the subscribers of a {@link PinEventStream}.
+ * <p/>
+ * Events only carry the number of digits, never the digits themselves, so that they can safely
+ * be handed to other threads and kept around.
+ */
+public final class PinEvent {
+
+    private final int mType;
+    private final int mLength;
+    private final long mTimestampNanos;
+
+    public PinEvent(@Type int type, int length) {
+        this(type, length, System.nanoTime());
+    }
+
+    public PinEvent(@Type int type, int length, long timestampNanos) {
+        this.mType = type;
+        this.mLength = length;
+        this.mTimestampNanos = timestampNanos;
+    }
+
+    @Type
+    public int getType() {
+        return mType;
+    }
+
+    /**
+     * The number of digits entered when the event happened
+     */
+    public int getLength() {
+        return mLength;
+    }
+
+    /**
+     * The time of the event, on the {@link System#nanoTime()} time base
+     */
+    public long getTimestampNanos() {
+        return mTimestampNanos;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "PinEvent{type=" + mType + ", length=" + mLength + ", timestampNanos=" + mTimestampNanos + '}';
+    }
+
+    @IntDef({Type.PIN_CHANGE, Type.EMPTY, Type.COMPLETE, Type.VERIFIED, Type.REJECTED})
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface Type {
+        int PIN_CHANGE = 0;
+        int EMPTY = 1;
+        int COMPLETE = 2;
+        int VERIFIED = 3;
+        int REJECTED = 4;
+    }
+}
@@ -0,0 +1,190 @@
+package com.msinghal34.pinlockview.core;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Fans the {@link PinEvent}s of a keypad out to any number of subscribers.
+ * <p/>
+ * Every subscriber is called on its own executor, through its own bounded buffer, so a slow subscriber
+ * never holds up the keypad nor the other subscribers. When a buffer is full the oldest event is dropped,
+ * a buffer of {@link #CONFLATED} only ever holding the latest event, so the last event published is always
+ * delivered. Publishing only holds the lock of each buffer for as long as it takes to queue the event.
+ * <p/>
+ * A subscriber that throws still gets the events published afterwards, the exception being left to its executor.
+ * An executor that rejects a delivery throws back to the publisher, and is tried again on the next event.
+ */
+public final class PinEventStream {
+
+    public static final int CONFLATED = 1;
+    public static final int DEFAULT_BUFFER_CAPACITY = 64;
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private static final int INITIAL_BUFFER_CAPACITY = 16;
+
+    private final CopyOnWriteArrayList<SubscriberQueue> mSubscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Subscribes with a buffer of {@link #DEFAULT_BUFFER_CAPACITY} events
+     *
+     * @see #subscribe(Subscriber, Executor, int)
+     */
+    @NonNull
+    public Subscription subscribe(@NonNull Subscriber subscriber, @NonNull Executor executor) {
+        return subscribe(subscriber, executor, DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Subscribes to the events published from now on
+     *
+     * @param subscriber     the subscriber
+     * @param executor       the executor the subscriber is called on, one event at a time
+     * @param bufferCapacity the number of events kept while the subscriber is busy, {@link #CONFLATED}
+     *                       to only keep the latest, {@link #UNLIMITED} to keep them all
+     * @return the subscription, to cancel once the events are no longer needed
+     */
+    @NonNull
+    public Subscription subscribe(@NonNull Subscriber subscriber, @NonNull Executor executor, int bufferCapacity) {
+        if (bufferCapacity < 1) {
+            throw new IllegalArgumentException("Invalid buffer capacity: " + bufferCapacity);
+        }
+        SubscriberQueue subscription = new SubscriberQueue(subscriber, executor, bufferCapacity);
+        mSubscribers.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Whether anyone listens, so that events don't get created for nothing
+     */
+    public boolean hasSubscribers() {
+        return !mSubscribers.isEmpty();
+    }
+
+    /**
+     * Publishes an event to every subscriber
+     *
+     * @param event the event
+     */
+    public void publish(@NonNull PinEvent event) {
+        for (SubscriberQueue subscriber : mSubscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    /**
+     * Receives the events of a {@link PinEventStream}, on the executor it subscribed with
+     */
+    public interface Subscriber {
+
+        void onPinEvent(@NonNull PinEvent event);
+    }
+
+    /**
+     * A subscription to a {@link PinEventStream}
+     */
+    public interface Subscription {
+
+        /**
+         * Stops the events, including the ones already buffered
+         */
+        void cancel();
+    }
+
+    private final class SubscriberQueue implements Subscription, Runnable {
+
+        private final Subscriber mSubscriber;
+        private final Executor mExecutor;
+        private final int mCapacity;
+        // Both guarded by this, so that dropping the oldest event can't race with the delivery of another
+        private final ArrayDeque<PinEvent> mQueue;
+        private boolean mScheduled;
+        private volatile boolean mCancelled;
+
+        SubscriberQueue(Subscriber subscriber, Executor executor, int capacity) {
+            this.mSubscriber = subscriber;
+            this.mExecutor = executor;
+            this.mCapacity = capacity;
+            this.mQueue = new ArrayDeque<>(Math.min(capacity, INITIAL_BUFFER_CAPACITY));
+        }
+
+        void offer(PinEvent event) {
+            synchronized (this) {
+                if (mCancelled) {
+                    return;
+                }
+                if (mQueue.size() == mCapacity) {
+                    mQueue.poll();
+                }
+                mQueue.offer(event);
+                if (mScheduled) {
+                    return;
+                }
+                mScheduled = true;
+            }
+            schedule();
+        }
+
+        /**
+         * Hands the queue to the executor, which must be marked as scheduled. If the executor rejects it, the
+         * queue is left unscheduled so that the next event tries again.
+         */
+        private void schedule() {
+            try {
+                mExecutor.execute(this);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    mScheduled = false;
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public void run() {
+            boolean drained = false;
+            try {
+                while (true) {
+                    PinEvent event;
+                    synchronized (this) {
+                        event = mQueue.poll();
+                        if (event == null) {
+                            mScheduled = false;
+                            drained = true;
+                            return;
+                        }
+                    }
+                    if (!mCancelled) {
+                        mSubscriber.onPinEvent(event);
+                    }
+                }
+            } finally {
+                if (!drained) {
+                    // The subscriber threw, the events left are delivered on another run
+                    rescheduleAfterFailure();
+                }
+            }
+        }
+
+        private void rescheduleAfterFailure() {
+            synchronized (this) {
+                if (mQueue.isEmpty()) {
+                    mScheduled = false;
+                    return;
+                }
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            mCancelled = true;
+            mSubscribers.remove(this);
+            synchronized (this) {
+                mQueue.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.msinghal34.pinlockview.core;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted PBKDF2 hashing of pins, with a cost calibrated on the running device.
+ * <p/>
+ * A hash is stored as a single record, {@code pbkdf2-sha1$<iterations>$<salt>$<hash>} with the salt and hash
+ * hex encoded, so that the cost travels with the hash and can be raised when the pin is next verified.
+ * HMAC-SHA1 is used as it is the only PBKDF2 variant available on every supported Android version.
+ * <p/>
+ * Hashing and calibrating take as long as the targeted latency, they must not run on the main thread.
+ */
+public final class PinHashUtils {
+
+    public static final int MIN_ITERATIONS = 10_000;
+    public static final int MAX_ITERATIONS = 10_000_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA1";
+    private static final String SCHEME = "pbkdf2-sha1";
+    private static final char SEPARATOR = '$';
+    private static final int SALT_LENGTH = 16;
+    // A single HMAC-SHA1 block, asking for more would double the cost for the device but not for an attacker
+    private static final int HASH_LENGTH = 20;
+    private static final int PROBE_ITERATIONS = 5_000;
+    private static final int PROBE_ROUNDS = 3;
+    private static final char[] PROBE_PIN = {'0', '0', '0', '0'};
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final SecureRandom sRandom = new SecureRandom();
+
+    private PinHashUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Measures the key derivation on this device and picks the iteration count meeting the target latency
+     *
+     * @param targetMillis the time a single hash should take
+     * @return the iteration count, between {@link #MIN_ITERATIONS} and {@link #MAX_ITERATIONS}
+     */
+    public static int calibrate(long targetMillis) {
+        byte[] salt = newSalt();
+        // Warms up the provider so that the first round does not pay for loading it
+        derive(PROBE_PIN, salt, PROBE_ITERATIONS);
+
+        long bestNanos = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            derive(PROBE_PIN, salt, PROBE_ITERATIONS);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        double iterations = (double) PROBE_ITERATIONS * targetMillis * 1_000_000L / Math.max(bestNanos, 1L);
+        return (int) Math.max(MIN_ITERATIONS, Math.min(MAX_ITERATIONS, iterations));
+    }
+
+    /**
+     * Hashes a pin with a new random salt
+     *
+     * @param pin        the pin, left untouched
+     * @param iterations the iteration count, usually from {@link #calibrate(long)}
+     * @return the encoded record holding the cost, salt and hash
+     */
+    public static String hash(char[] pin, int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("Invalid iteration count: " + iterations);
+        }
+        byte[] salt = newSalt();
+        byte[] hash = derive(pin, salt, iterations);
+        String record = SCHEME + SEPARATOR + iterations + SEPARATOR + toHex(salt) + SEPARATOR + toHex(hash);
+        Arrays.fill(hash, (byte) 0);
+        return record;
+    }
+
+    /**
+     * Checks a pin against a record created by {@link #hash(char[], int)}, comparing the hashes in constant time
+     *
+     * @param pin    the pin, left untouched
+     * @param record the encoded record
+     * @return true if the pin matches, false if it does not or the record is malformed
+     */
+    public static boolean verify(char[] pin, String record) {
+        String[] parts = split(record);
+        if (parts == null) {
+            return false;
+        }
+        int iterations = parseIterations(parts[1]);
+        byte[] salt = fromHex(parts[2]);
+        byte[] expected = fromHex(parts[3]);
+        if (iterations < 1 || salt == null || expected == null) {
+            return false;
+        }
+
+        byte[] actual = derive(pin, salt, iterations, expected.length);
+        boolean matches = MessageDigest.isEqual(actual, expected);
+        Arrays.fill(actual, (byte) 0);
+        return matches;
+    }
+
+    /**
+     * Reads the cost of a record
+     *
+     * @param record the encoded record
+     * @return the iteration count, or -1 if the record is malformed
+     */
+    public static int getIterations(String record) {
+        String[] parts = split(record);
+        return parts == null ? -1 : parseIterations(parts[1]);
+    }
+
+    private static byte[] newSalt() {
+        byte[] salt = new byte[SALT_LENGTH];
+        sRandom.nextBytes(salt);
+        return salt;
+    }
+
+    private static byte[] derive(char[] pin, byte[] salt, int iterations) {
+        return derive(pin, salt, iterations, HASH_LENGTH);
+    }
+
+    private static byte[] derive(char[] pin, byte[] salt, int iterations, int length) {
+        PBEKeySpec spec = new PBEKeySpec(pin, salt, iterations, length * 8);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static String[] split(String record) {
+        if (record == null) {
+            return null;
+        }
+        String[] parts = record.split("\\" + SEPARATOR, -1);
+        return parts.length == 4 && SCHEME.equals(parts[0]) ? parts : null;
+    }
+
+    private static int parseIterations(String iterations) {
+        try {
+            return Integer.parseInt(iterations);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static byte[] fromHex(String hex) {
+        if (hex.isEmpty() || hex.length() % 2 != 0) {
+            return null;
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return null;
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,30 @@
+package com.msinghal34.pinlockview.core;
+
+import java.util.Random;
+
+public class ShuffleArrayUtils {
+
+    private ShuffleArrayUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Shuffle an array in place, every permutation being equally likely as long as the random source is uniform
+     *
+     * @param array  the array to shuffle
+     * @param random the source of randomness, a {@link java.security.SecureRandom} for keypad layouts
+     * @return the shuffled array
+     */
+    public static int[] shuffle(int[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            swap(array, i, random.nextInt(i + 1));
+        }
+        return array;
+    }
+
+    private static void swap(int[] array, int index, int change) {
+        int temp = array[index];
+        array[index] = array[change];
+        array[change] = temp;
+    }
+}
@@ -0,0 +1,206 @@
+package com.msinghal34.pinlockview.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+public class AttemptLimiterTest {
+
+    private static final int FREE_ATTEMPTS = 3;
+    private static final long BASE_LOCKOUT_MILLIS = 1_000L;
+    private static final long MAX_LOCKOUT_MILLIS = 5_000L;
+
+    private FakeClock mClock;
+    private FakeStore mStore;
+    private QueueExecutor mExecutor;
+    private AttemptLimiter mLimiter;
+
+    @Before
+    public void setUp() {
+        mClock = new FakeClock();
+        mStore = new FakeStore();
+        mExecutor = new QueueExecutor();
+        mLimiter = newLimiter();
+    }
+
+    @Test
+    public void freeAttempts_doNotLockOut() {
+        for (int i = 0; i < FREE_ATTEMPTS; i++) {
+            assertEquals(0, mLimiter.recordFailure());
+        }
+
+        assertEquals(FREE_ATTEMPTS, mLimiter.getFailureCount());
+        assertFalse(mLimiter.isLockedOut());
+    }
+
+    @Test
+    public void lockouts_doubleUpToTheMaximum() {
+        fail(FREE_ATTEMPTS);
+
+        assertEquals(1_000L, mLimiter.recordFailure());
+        assertEquals(2_000L, mLimiter.recordFailure());
+        assertEquals(4_000L, mLimiter.recordFailure());
+        assertEquals(5_000L, mLimiter.recordFailure());
+        assertEquals(5_000L, mLimiter.recordFailure());
+    }
+
+    @Test
+    public void lockout_expiresWithTheClock() {
+        fail(FREE_ATTEMPTS + 1);
+        assertTrue(mLimiter.isLockedOut());
+        assertEquals(BASE_LOCKOUT_MILLIS, mLimiter.getRemainingLockoutMillis());
+
+        mClock.advance(BASE_LOCKOUT_MILLIS - 1);
+        assertEquals(1, mLimiter.getRemainingLockoutMillis());
+
+        mClock.advance(1);
+        assertFalse(mLimiter.isLockedOut());
+    }
+
+    @Test
+    public void lockout_neverExceedsTheMaximumWhenTheClockGoesBack() {
+        fail(FREE_ATTEMPTS + 1);
+
+        mClock.advance(-60_000L);
+
+        assertEquals(MAX_LOCKOUT_MILLIS, mLimiter.getRemainingLockoutMillis());
+    }
+
+    @Test
+    public void success_resetsTheCount() {
+        fail(FREE_ATTEMPTS + 2);
+
+        mLimiter.recordSuccess();
+
+        assertEquals(0, mLimiter.getFailureCount());
+        assertFalse(mLimiter.isLockedOut());
+        assertEquals(0, mLimiter.recordFailure());
+    }
+
+    @Test
+    public void writes_areCoalesced() {
+        fail(FREE_ATTEMPTS + 2);
+        assertEquals(1, mExecutor.mTasks.size());
+
+        mExecutor.runAll();
+
+        assertEquals(1, mStore.mWrites.size());
+        assertEquals(FREE_ATTEMPTS + 2, mStore.mFailureCount);
+        assertEquals(mClock.mNow + 2 * BASE_LOCKOUT_MILLIS, mStore.mLockoutEndMillis);
+    }
+
+    @Test
+    public void state_survivesANewLimiter() {
+        fail(FREE_ATTEMPTS + 1);
+        mExecutor.runAll();
+        mClock.advance(400L);
+
+        AttemptLimiter restored = newLimiter();
+
+        assertEquals(FREE_ATTEMPTS + 1, restored.getFailureCount());
+        assertEquals(600L, restored.getRemainingLockoutMillis());
+        assertEquals(2 * BASE_LOCKOUT_MILLIS, restored.recordFailure());
+    }
+
+    @Test
+    public void success_isPersisted() {
+        fail(FREE_ATTEMPTS + 1);
+        mExecutor.runAll();
+
+        mLimiter.recordSuccess();
+        mExecutor.runAll();
+
+        assertEquals(0, mStore.mFailureCount);
+        assertEquals(0, mStore.mLockoutEndMillis);
+        assertFalse(newLimiter().isLockedOut());
+    }
+
+    @Test
+    public void success_withoutFailures_doesNotWrite() {
+        mLimiter.recordSuccess();
+
+        assertTrue(mExecutor.mTasks.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void maxLockoutBelowBase_throws() {
+        new AttemptLimiter(FREE_ATTEMPTS, MAX_LOCKOUT_MILLIS, BASE_LOCKOUT_MILLIS, mClock, mStore, mExecutor);
+    }
+
+    private AttemptLimiter newLimiter() {
+        return new AttemptLimiter(FREE_ATTEMPTS, BASE_LOCKOUT_MILLIS, MAX_LOCKOUT_MILLIS, mClock, mStore, mExecutor);
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            mLimiter.recordFailure();
+        }
+    }
+
+    private static final class FakeClock implements AttemptLimiter.Clock {
+
+        long mNow = 1_700_000_000_000L;
+
+        void advance(long millis) {
+            mNow += millis;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return mNow;
+        }
+    }
+
+    private static final class FakeStore implements AttemptLimiter.Store {
+
+        final List<long[]> mWrites = new ArrayList<>();
+        int mFailureCount;
+        long mLockoutEndMillis;
+
+        @Override
+        public int readFailureCount() {
+            return mFailureCount;
+        }
+
+        @Override
+        public long readLockoutEndMillis() {
+            return mLockoutEndMillis;
+        }
+
+        @Override
+        public void write(int failureCount, long lockoutEndMillis) {
+            mWrites.add(new long[]{failureCount, lockoutEndMillis});
+            mFailureCount = failureCount;
+            mLockoutEndMillis = lockoutEndMillis;
+        }
+    }
+
+    /**
+     * Holds the tasks until the test runs them, as a background executor would
+     */
+    private static final class QueueExecutor implements Executor {
+
+        final Queue<Runnable> mTasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            mTasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = mTasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.msinghal34.pinlockview.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class KeyLayoutTest {
+
+    @Test
+    public void defaultLayout_isTheStandardKeypad() {
+        KeyLayout layout = KeyLayout.DEFAULT;
+
+        assertEquals(4, layout.getRowCount());
+        assertEquals(3, layout.getColumnCount());
+        assertEquals(10, layout.getDigitCount());
+        assertTrue(layout.hasDeleteKey());
+        assertEquals("1", layout.getLabel(0));
+        assertEquals(KeyLayout.KeyType.EMPTY, layout.getType(9));
+        assertEquals("0", layout.getLabel(10));
+        assertEquals(KeyLayout.KeyType.DELETE, layout.getType(11));
+        assertNull(layout.getLabel(11));
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 0}, layout.getKeyValues());
+    }
+
+    @Test
+    public void digitsAboveNine_areLabelledInUppercase() {
+        KeyLayout layout = new KeyLayout.Builder(1, 3)
+                .digit(0, 10)
+                .digit(1, 15)
+                .digit(2, 35)
+                .build();
+
+        assertEquals("A", layout.getLabel(0));
+        assertEquals("F", layout.getLabel(1));
+        assertEquals("Z", layout.getLabel(2));
+    }
+
+    @Test
+    public void withKeyValues_keepsTheKeyIdsWithTheirValues() {
+        KeyLayout layout = KeyLayout.DEFAULT;
+        KeyLayout moved = layout.withKeyValues(new int[]{0, 9, 8, 7, 6, 5, 4, 3, 2, 1});
+
+        assertEquals(layout.getKeyId(0), moved.getKeyId(10));
+        assertEquals(layout.getKeyId(10), moved.getKeyId(0));
+        assertEquals(layout.getKeyId(11), moved.getKeyId(11));
+        assertEquals("0", moved.getLabel(0));
+        assertSame(layout.getLabel(0), moved.getLabel(10));
+    }
+
+    @Test
+    public void withKeyValues_movesCustomLabelsWithTheirValues() {
+        KeyLayout layout = new KeyLayout.Builder(1, 3)
+                .digit(0, 1, "\u2660")
+                .digit(1, 2)
+                .digit(2, 3, "\u2663")
+                .build();
+
+        KeyLayout moved = layout.withKeyValues(new int[]{3, 1, 2});
+
+        assertEquals("\u2663", moved.getLabel(0));
+        assertEquals("\u2660", moved.getLabel(1));
+        assertEquals("2", moved.getLabel(2));
+        assertEquals(layout, moved.withKeyValues(new int[]{1, 2, 3}));
+    }
+
+    @Test
+    public void hasDigits_onlyAcceptsTheDigitsOfTheLayout() {
+        KeyLayout hex = new KeyLayout.Builder(1, 3)
+                .digit(0, 0)
+                .digit(1, 10)
+                .digit(2, 15)
+                .build();
+
+        assertTrue(hex.hasDigits("0AF"));
+        assertTrue(hex.hasDigits("af"));
+        assertFalse(hex.hasDigits("1"));
+        assertFalse(hex.hasDigits("0-"));
+        assertTrue(KeyLayout.DEFAULT.hasDigits("0123456789"));
+        assertFalse(KeyLayout.DEFAULT.hasDigits("A"));
+    }
+
+    @Test
+    public void keyIds_areUniqueWithRepeatedKeys() {
+        KeyLayout layout = new KeyLayout.Builder(2, 2)
+                .digit(0, 1)
+                .digit(1, 1)
+                .empty(2)
+                .empty(3)
+                .build();
+
+        Set<Long> ids = new HashSet<>();
+        for (int position = 0; position < layout.getCellCount(); position++) {
+            ids.add(layout.getKeyId(position));
+        }
+        assertEquals(layout.getCellCount(), ids.size());
+    }
+
+    @Test
+    public void functionKeys_keepTheirIdAndLabel() {
+        KeyLayout layout = new KeyLayout.Builder(1, 2)
+                .function(0, 42, "OK")
+                .digit(1, 5)
+                .build();
+
+        assertEquals(KeyLayout.KeyType.FUNCTION, layout.getType(0));
+        assertEquals(42, layout.getValue(0));
+        assertEquals("OK", layout.getLabel(0));
+        assertEquals(1, layout.getDigitCount());
+    }
+
+    @Test
+    public void equality_followsTheKeys() {
+        KeyLayout layout = KeyLayout.standard(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 0});
+        KeyLayout moved = layout.withKeyValues(new int[]{2, 1, 3, 4, 5, 6, 7, 8, 9, 0});
+
+        assertEquals(KeyLayout.DEFAULT, layout);
+        assertEquals(KeyLayout.DEFAULT.hashCode(), layout.hashCode());
+        assertNotEquals(layout, moved);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withKeyValues_ofTheWrongCount_throws() {
+        KeyLayout.DEFAULT.withKeyValues(new int[]{1, 2, 3});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void digit_outOfRange_throws() {
+        new KeyLayout.Builder(1, 1).digit(0, Character.MAX_RADIX);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void position_outOfTheGrid_throws() {
+        new KeyLayout.Builder(1, 1).delete(1);
+    }
+}
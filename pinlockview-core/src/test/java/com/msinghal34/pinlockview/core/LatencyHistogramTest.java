@@ -0,0 +1,99 @@
+package com.msinghal34.pinlockview.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void empty_reportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getP50Nanos());
+        assertEquals(0, histogram.getMeanNanos());
+    }
+
+    @Test
+    public void microsecondValues_areExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 10; micros++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+
+        assertEquals(5_000, histogram.getP50Nanos());
+        assertEquals(10_000, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void percentiles_stayWithinTheBucketResolution() {
+        long[] values = {
+                TimeUnit.MICROSECONDS.toNanos(17),
+                TimeUnit.MICROSECONDS.toNanos(999),
+                TimeUnit.MILLISECONDS.toNanos(16),
+                TimeUnit.MILLISECONDS.toNanos(50),
+                TimeUnit.SECONDS.toNanos(3),
+                TimeUnit.MINUTES.toNanos(2)
+        };
+        for (long value : values) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            // Pushes the max out, so that the reported value is the upper bound of the bucket
+            histogram.record(value * 4);
+
+            long reported = histogram.getP50Nanos();
+            assertTrue(value + " reported as " + reported, reported >= value - 1_000);
+            assertTrue(value + " reported as " + reported, reported <= value + value / 16 + 1_000);
+        }
+    }
+
+    @Test
+    public void percentiles_neverExceedTheMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(1_000_001));
+
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(1_000_001), histogram.getP99Nanos());
+    }
+
+    @Test
+    public void hugeValues_landInTheLastBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(10));
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(Long.MAX_VALUE, histogram.getPercentileNanos(100));
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(10), histogram.getPercentileNanos(50));
+    }
+
+    @Test
+    public void negativeValues_countAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+    }
+
+    @Test
+    public void meanAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        histogram.record(3_000);
+        assertEquals(2_000, histogram.getMeanNanos());
+
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+        assertEquals(0, histogram.getP99Nanos());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidPercentile_throws() {
+        new LatencyHistogram().getPercentileNanos(101);
+    }
+}
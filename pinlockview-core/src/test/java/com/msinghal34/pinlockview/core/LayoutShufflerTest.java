@@ -0,0 +1,114 @@
+package com.msinghal34.pinlockview.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+public class LayoutShufflerTest {
+
+    private static final int[] KEY_SET = {1, 2, 3, 4, 5, 6, 7, 8, 9, 0};
+
+    @Test
+    public void next_returnsAPermutationOfTheKeySet() {
+        LayoutShuffler shuffler = new LayoutShuffler(KEY_SET, Runnable::run);
+
+        for (int i = 0; i < 100; i++) {
+            int[] layout = shuffler.next();
+            int[] sorted = layout.clone();
+            Arrays.sort(sorted);
+            assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, sorted);
+        }
+    }
+
+    @Test
+    public void creation_startsFillingThePool() {
+        QueueExecutor executor = new QueueExecutor();
+        LayoutShuffler shuffler = new LayoutShuffler(KEY_SET, 2, executor);
+        assertEquals(1, executor.mTasks.size());
+
+        executor.runAll();
+        shuffler.next();
+
+        // Taken from the pool, which is topped up again
+        assertEquals(1, executor.mTasks.size());
+    }
+
+    @Test
+    public void next_withAnEmptyPool_shufflesOnTheCallingThread() {
+        QueueExecutor executor = new QueueExecutor();
+        LayoutShuffler shuffler = new LayoutShuffler(KEY_SET, executor);
+
+        int[] layout = shuffler.next();
+
+        assertEquals(KEY_SET.length, layout.length);
+        assertEquals(1, executor.mTasks.size());
+    }
+
+    @Test
+    public void refills_areNotScheduledTwice() {
+        QueueExecutor executor = new QueueExecutor();
+        LayoutShuffler shuffler = new LayoutShuffler(KEY_SET, 2, executor);
+
+        shuffler.prefill();
+        shuffler.prefill();
+        shuffler.next();
+
+        assertEquals(1, executor.mTasks.size());
+    }
+
+    @Test
+    public void prefilledLayouts_areHandedOutOnce() {
+        QueueExecutor executor = new QueueExecutor();
+        LayoutShuffler shuffler = new LayoutShuffler(KEY_SET, 2, executor);
+        shuffler.prefill();
+        executor.runAll();
+
+        int[] first = shuffler.next();
+        int[] second = shuffler.next();
+
+        assertNotSame(first, second);
+        // Both came from the pool, the refill they scheduled has not run yet
+        assertEquals(1, executor.mTasks.size());
+    }
+
+    @Test
+    public void keySet_isCopied() {
+        int[] keySet = KEY_SET.clone();
+        LayoutShuffler shuffler = new LayoutShuffler(keySet, Runnable::run);
+        Arrays.fill(keySet, 7);
+
+        int[] sorted = shuffler.next();
+        Arrays.sort(sorted);
+
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, sorted);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyPool_throws() {
+        new LayoutShuffler(KEY_SET, 0, Runnable::run);
+    }
+
+    private static final class QueueExecutor implements Executor {
+
+        final Queue<Runnable> mTasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            mTasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = mTasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.msinghal34.pinlockview.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+
+public class PinBufferTest {
+
+    @Test
+    public void append_fillsUpToCapacity() {
+        PinBuffer buffer = new PinBuffer(4);
+        assertTrue(buffer.isEmpty());
+
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(buffer.append(i));
+        }
+        assertTrue(buffer.isFull());
+        assertFalse(buffer.append(5));
+        assertEquals("1234", buffer.toString());
+    }
+
+    @Test
+    public void deleteLast_removesAndZeroesTheLastDigit() {
+        PinBuffer buffer = new PinBuffer(4);
+        buffer.append(1);
+        buffer.append(2);
+
+        assertTrue(buffer.deleteLast());
+        assertEquals("1", buffer.toString());
+        assertArrayEquals(new char[]{'1', 0, 0, 0}, backingArray(buffer));
+
+        assertTrue(buffer.deleteLast());
+        assertFalse(buffer.deleteLast());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void wipe_zeroesTheBackingArray() {
+        PinBuffer buffer = new PinBuffer(4);
+        buffer.append(9);
+        buffer.append(8);
+        buffer.append(7);
+
+        buffer.wipe();
+
+        assertEquals(0, buffer.length());
+        assertArrayEquals(new char[4], backingArray(buffer));
+    }
+
+    @Test
+    public void setCapacity_wipesTheDigits() {
+        PinBuffer buffer = new PinBuffer(4);
+        buffer.append(1);
+        char[] oldDigits = backingArray(buffer);
+
+        buffer.setCapacity(6);
+
+        assertEquals(6, buffer.capacity());
+        assertTrue(buffer.isEmpty());
+        assertArrayEquals(new char[4], oldDigits);
+    }
+
+    @Test
+    public void charSequenceView_matchesTheDigits() {
+        PinBuffer buffer = new PinBuffer(6);
+        for (int digit : new int[]{4, 0, 2, 9}) {
+            buffer.append(digit);
+        }
+
+        assertEquals('4', buffer.charAt(0));
+        assertEquals('9', buffer.charAt(3));
+        assertEquals("02", buffer.subSequence(1, 3).toString());
+    }
+
+    @Test
+    public void keysAboveNine_matchTheirUppercaseLabels() {
+        PinBuffer buffer = new PinBuffer(3);
+        buffer.append(10);
+        buffer.append(15);
+        buffer.append(35);
+
+        assertEquals("AFZ", buffer.toString());
+        assertEquals(KeyLayout.DEFAULT.withKeyValues(new int[]{10, 2, 3, 4, 5, 6, 7, 8, 9, 0}).getLabel(0),
+                buffer.subSequence(0, 1).toString());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void charAt_pastTheLength_throws() {
+        PinBuffer buffer = new PinBuffer(4);
+        buffer.append(1);
+        buffer.charAt(1);
+    }
+
+    private static char[] backingArray(PinBuffer buffer) {
+        try {
+            Field field = PinBuffer.class.getDeclaredField("mDigits");
+            field.setAccessible(true);
+            return (char[]) field.get(buffer);
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.msinghal34.pinlockview.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks the engine against the behavior PinLockView had before the pin logic was extracted from it
+ */
+public class PinEntryEngineTest {
+
+    private PinEntryEngine mEngine;
+    private RecordingListener mListener;
+
+    @Before
+    public void setUp() {
+        mEngine = new PinEntryEngine(4);
+        mListener = new RecordingListener();
+        mEngine.setListener(mListener);
+    }
+
+    @Test
+    public void pressDigit_reportsEachIntermediateLength() {
+        mEngine.pressDigit(1);
+        mEngine.pressDigit(2);
+
+        assertEquals("12", mEngine.getPin().toString());
+        assertEquals(List.of("length 1", "change 1", "length 2", "change 2"), mListener.mEvents);
+    }
+
+    @Test
+    public void pressDigit_onLastDigit_reportsCompletionWithThePin() {
+        enter(1, 2, 3, 4);
+
+        assertEquals(List.of("length 4", "complete 1234"), mListener.mEvents.subList(6, 8));
+        assertTrue(mEngine.isFull());
+    }
+
+    @Test
+    public void completion_wipesThePinWhenTheListenerAsks() {
+        mListener.mWipeOnComplete = true;
+        enter(1, 2, 3, 4);
+
+        assertEquals(0, mEngine.length());
+        assertEquals("length 0", mListener.last());
+    }
+
+    @Test
+    public void pressDigit_onFullPin_reportsARepeatedCompletion() {
+        enter(1, 2, 3, 4);
+        mListener.mEvents.clear();
+
+        mEngine.pressDigit(5);
+
+        assertEquals(List.of("repeated 1234"), mListener.mEvents);
+    }
+
+    @Test
+    public void pressDigit_onFullPin_restartsWhenEnabled() {
+        mEngine.setRestartOnOverflow(true);
+        enter(1, 2, 3, 4);
+        mListener.mEvents.clear();
+
+        mEngine.pressDigit(5);
+
+        assertEquals("5", mEngine.getPin().toString());
+        assertEquals(List.of("length 0", "length 1", "change 1"), mListener.mEvents);
+    }
+
+    @Test
+    public void pressDelete_reportsEmptyOnTheLastDigit() {
+        enter(1, 2);
+        mListener.mEvents.clear();
+
+        mEngine.pressDelete();
+        mEngine.pressDelete();
+
+        assertEquals(List.of("length 1", "change 1", "length 0", "empty"), mListener.mEvents);
+    }
+
+    @Test
+    public void pressDelete_onEmptyPin_reportsEmptyOnly() {
+        mEngine.pressDelete();
+
+        assertEquals(List.of("empty"), mListener.mEvents);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pressDigit_outOfRange_throws() {
+        mEngine.pressDigit(Character.MAX_RADIX);
+    }
+
+    @Test
+    public void reset_wipesSilentlyUnlessEmpty() {
+        mEngine.reset();
+        assertTrue(mListener.mEvents.isEmpty());
+
+        enter(1);
+        mListener.mEvents.clear();
+        mEngine.reset();
+
+        assertEquals(List.of("length 0"), mListener.mEvents);
+    }
+
+    @Test
+    public void setPinLength_wipesWithoutEvents() {
+        enter(1, 2);
+        mListener.mEvents.clear();
+
+        mEngine.setPinLength(6);
+
+        assertEquals(6, mEngine.getPinLength());
+        assertEquals(0, mEngine.length());
+        assertTrue(mListener.mEvents.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setPinLength_belowOne_throws() {
+        mEngine.setPinLength(0);
+    }
+
+    @Test
+    public void enterDigits_reportsASingleUpdate() {
+        assertTrue(mEngine.enterDigits("123"));
+
+        assertEquals(List.of("length 3", "change 3"), mListener.mEvents);
+    }
+
+    @Test
+    public void enterDigits_completingThePin_reportsCompletion() {
+        enter(1);
+        mListener.mEvents.clear();
+
+        assertTrue(mEngine.enterDigits("234"));
+
+        assertEquals(List.of("length 4", "complete 1234"), mListener.mEvents);
+    }
+
+    @Test
+    public void enterDigits_rejectsInvalidOrTooLongSequences() {
+        assertFalse(mEngine.enterDigits("12345"));
+        assertFalse(mEngine.enterDigits("1-2"));
+
+        assertEquals(0, mEngine.length());
+        assertTrue(mListener.mEvents.isEmpty());
+    }
+
+    @Test
+    public void enterDigits_acceptsTheWholeRadix36Range() {
+        assertTrue(mEngine.enterDigits("9aZ"));
+
+        assertEquals("9AZ", mEngine.getPin().toString());
+        assertArrayEquals(new byte[]{9, 10, 35}, mEngine.copyDigits());
+    }
+
+    @Test
+    public void copyDigits_thenRestoreDigits_roundTrips() {
+        enter(7, 3);
+        byte[] digits = mEngine.copyDigits();
+        assertArrayEquals(new byte[]{7, 3}, digits);
+
+        PinEntryEngine restored = new PinEntryEngine(4);
+        RecordingListener listener = new RecordingListener();
+        restored.setListener(listener);
+
+        assertTrue(restored.restoreDigits(digits));
+        assertEquals("73", restored.getPin().toString());
+        assertEquals(List.of("length 2"), listener.mEvents);
+    }
+
+    @Test
+    public void restoreDigits_rejectsACompletePin() {
+        assertFalse(mEngine.restoreDigits(new byte[]{1, 2, 3, 4}));
+        assertEquals(0, mEngine.length());
+    }
+
+    private void enter(int... keyValues) {
+        for (int keyValue : keyValues) {
+            mEngine.pressDigit(keyValue);
+        }
+    }
+
+    private final class RecordingListener implements PinEntryEngine.Listener {
+
+        final List<String> mEvents = new ArrayList<>();
+        boolean mWipeOnComplete;
+
+        @Override
+        public void onLengthChanged(int length) {
+            mEvents.add("length " + length);
+        }
+
+        @Override
+        public void onPinChange(int length) {
+            mEvents.add("change " + length);
+        }
+
+        @Override
+        public void onEmpty() {
+            mEvents.add("empty");
+        }
+
+        @Override
+        public boolean onComplete(boolean repeated) {
+            mEvents.add((repeated ? "repeated " : "complete ") + mEngine.getPin());
+            return mWipeOnComplete;
+        }
+
+        String last() {
+            return mEvents.get(mEvents.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.msinghal34.pinlockview.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class PinEventStreamTest {
+
+    private static final int ROUNDS = 200;
+    private static final int EVENTS_PER_ROUND = 500;
+
+    private ExecutorService mExecutor;
+
+    @Before
+    public void setUp() {
+        mExecutor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.shutdownNow();
+    }
+
+    @Test
+    public void everySubscriber_receivesEveryEventInOrder() {
+        PinEventStream stream = new PinEventStream();
+        List<PinEvent> first = new ArrayList<>();
+        List<PinEvent> second = new ArrayList<>();
+        stream.subscribe(first::add, Runnable::run);
+        stream.subscribe(second::add, Runnable::run);
+
+        PinEvent change = new PinEvent(PinEvent.Type.PIN_CHANGE, 1);
+        PinEvent complete = new PinEvent(PinEvent.Type.COMPLETE, 4);
+        stream.publish(change);
+        stream.publish(complete);
+
+        assertEquals(List.of(change, complete), first);
+        assertEquals(List.of(change, complete), second);
+    }
+
+    @Test
+    public void fullBuffer_dropsTheOldestEvents() {
+        PinEventStream stream = new PinEventStream();
+        List<Runnable> pending = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        stream.subscribe(event -> lengths.add(event.getLength()), pending::add, 2);
+
+        for (int length = 1; length <= 4; length++) {
+            stream.publish(new PinEvent(PinEvent.Type.PIN_CHANGE, length));
+        }
+        pending.get(0).run();
+
+        assertEquals(List.of(3, 4), lengths);
+    }
+
+    @Test
+    public void cancel_stopsTheBufferedEvents() {
+        PinEventStream stream = new PinEventStream();
+        List<Runnable> pending = new ArrayList<>();
+        List<PinEvent> events = new ArrayList<>();
+        PinEventStream.Subscription subscription = stream.subscribe(events::add, pending::add);
+
+        stream.publish(new PinEvent(PinEvent.Type.PIN_CHANGE, 1));
+        subscription.cancel();
+        stream.publish(new PinEvent(PinEvent.Type.PIN_CHANGE, 2));
+        pending.get(0).run();
+
+        assertTrue(events.isEmpty());
+        assertFalse(stream.hasSubscribers());
+    }
+
+    @Test
+    public void throwingSubscriber_keepsReceivingEvents() {
+        PinEventStream stream = new PinEventStream();
+        List<Runnable> pending = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        stream.subscribe(event -> {
+            lengths.add(event.getLength());
+            if (event.getLength() == 1) {
+                throw new IllegalStateException("Subscriber failure");
+            }
+        }, pending::add);
+
+        stream.publish(new PinEvent(PinEvent.Type.PIN_CHANGE, 1));
+        stream.publish(new PinEvent(PinEvent.Type.PIN_CHANGE, 2));
+        runSwallowingFailures(pending.get(0));
+        assertEquals("The events left were not rescheduled", 2, pending.size());
+        pending.get(1).run();
+        stream.publish(new PinEvent(PinEvent.Type.PIN_CHANGE, 3));
+        pending.get(2).run();
+
+        assertEquals(List.of(1, 2, 3), lengths);
+    }
+
+    @Test
+    public void rejectingExecutor_isTriedAgainOnTheNextEvent() {
+        PinEventStream stream = new PinEventStream();
+        List<Integer> lengths = new ArrayList<>();
+        AtomicBoolean reject = new AtomicBoolean(true);
+        stream.subscribe(event -> lengths.add(event.getLength()), command -> {
+            if (reject.getAndSet(false)) {
+                throw new RejectedExecutionException();
+            }
+            command.run();
+        });
+
+        try {
+            stream.publish(new PinEvent(PinEvent.Type.PIN_CHANGE, 1));
+            fail("The rejection was not reported");
+        } catch (RejectedExecutionException expected) {
+            // The event stays buffered
+        }
+        stream.publish(new PinEvent(PinEvent.Type.PIN_CHANGE, 2));
+
+        assertEquals(List.of(1, 2), lengths);
+    }
+
+    @Test
+    public void conflated_alwaysDeliversTheLastEvent() throws InterruptedException {
+        checkLastEventDelivered(PinEventStream.CONFLATED);
+    }
+
+    @Test
+    public void bounded_alwaysDeliversTheLastEvent() throws InterruptedException {
+        checkLastEventDelivered(4);
+    }
+
+    private static void runSwallowingFailures(Runnable runnable) {
+        try {
+            runnable.run();
+            fail("The subscriber failure was not thrown to the executor");
+        } catch (IllegalStateException expected) {
+            // As an executor would, e.g. to its uncaught exception handler
+        }
+    }
+
+    /**
+     * Publishes from the test thread while the subscriber drains on the executor, so that drops
+     * and deliveries interleave, and checks that the final event of every round arrives
+     */
+    private void checkLastEventDelivered(int bufferCapacity) throws InterruptedException {
+        for (int round = 0; round < ROUNDS; round++) {
+            PinEventStream stream = new PinEventStream();
+            PinEvent last = new PinEvent(PinEvent.Type.VERIFIED, round);
+            CountDownLatch delivered = new CountDownLatch(1);
+            PinEventStream.Subscription subscription = stream.subscribe(event -> {
+                if (event == last) {
+                    delivered.countDown();
+                }
+            }, mExecutor, bufferCapacity);
+
+            for (int i = 0; i < EVENTS_PER_ROUND; i++) {
+                stream.publish(new PinEvent(PinEvent.Type.PIN_CHANGE, i));
+            }
+            stream.publish(last);
+
+            assertTrue("The last event of round " + round + " was dropped", delivered.await(5, TimeUnit.SECONDS));
+            subscription.cancel();
+        }
+    }
+}
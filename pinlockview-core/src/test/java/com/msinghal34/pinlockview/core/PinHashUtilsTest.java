@@ -0,0 +1,73 @@
+package com.msinghal34.pinlockview.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PinHashUtilsTest {
+
+    private static final int ITERATIONS = 1_000;
+
+    @Test
+    public void hash_thenVerify_roundTrips() {
+        String record = PinHashUtils.hash("1234".toCharArray(), ITERATIONS);
+
+        assertTrue(PinHashUtils.verify("1234".toCharArray(), record));
+        assertFalse(PinHashUtils.verify("1235".toCharArray(), record));
+        assertFalse(PinHashUtils.verify("123".toCharArray(), record));
+    }
+
+    @Test
+    public void hash_carriesItsCost() {
+        String record = PinHashUtils.hash("0000".toCharArray(), ITERATIONS);
+
+        assertTrue(record.startsWith("pbkdf2-sha1$1000$"));
+        assertEquals(ITERATIONS, PinHashUtils.getIterations(record));
+    }
+
+    @Test
+    public void hash_isSalted() {
+        assertNotEquals(PinHashUtils.hash("1234".toCharArray(), ITERATIONS),
+                PinHashUtils.hash("1234".toCharArray(), ITERATIONS));
+    }
+
+    @Test
+    public void hash_leavesThePinUntouched() {
+        char[] pin = "4321".toCharArray();
+
+        PinHashUtils.hash(pin, ITERATIONS);
+
+        assertEquals("4321", new String(pin));
+    }
+
+    @Test
+    public void malformedRecords_neverVerify() {
+        char[] pin = "1234".toCharArray();
+        String record = PinHashUtils.hash(pin, ITERATIONS);
+
+        assertFalse(PinHashUtils.verify(pin, null));
+        assertFalse(PinHashUtils.verify(pin, ""));
+        assertFalse(PinHashUtils.verify(pin, record.replace("pbkdf2-sha1", "md5")));
+        assertFalse(PinHashUtils.verify(pin, record.replace("$1000$", "$x$")));
+        assertFalse(PinHashUtils.verify(pin, record.replace("$1000$", "$0$")));
+        assertFalse(PinHashUtils.verify(pin, record + "0"));
+        assertFalse(PinHashUtils.verify(pin, record.substring(0, record.lastIndexOf('$')) + "$zz"));
+        assertEquals(-1, PinHashUtils.getIterations("nope"));
+    }
+
+    @Test
+    public void calibrate_staysWithinBounds() {
+        int iterations = PinHashUtils.calibrate(1);
+
+        assertTrue(iterations >= PinHashUtils.MIN_ITERATIONS);
+        assertTrue(iterations <= PinHashUtils.MAX_ITERATIONS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void hash_withoutIterations_throws() {
+        PinHashUtils.hash("1234".toCharArray(), 0);
+    }
+}
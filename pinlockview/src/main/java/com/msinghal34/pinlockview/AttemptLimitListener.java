@@ -0,0 +1,23 @@
+package com.msinghal34.pinlockview;
+
+import com.msinghal34.pinlockview.core.AttemptLimiter;
+
+/**
+ * The listener that triggers callbacks when the keypad is locked out by an {@link AttemptLimiter}
+ * and unlocked again. All the callbacks are made on the main thread.
+ */
+public interface AttemptLimitListener {
+
+    /**
+     * Triggers when the keypad starts ignoring input after too many failed attempts,
+     * or when a limiter which is already locked out is set
+     *
+     * @param remainingMillis the time left before the keypad takes input again
+     */
+    void onLockout(long remainingMillis);
+
+    /**
+     * Triggers when the lockout expires and the keypad takes input again
+     */
+    void onLockoutExpired();
+}
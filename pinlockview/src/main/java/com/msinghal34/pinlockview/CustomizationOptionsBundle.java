@@ -1,5 +1,8 @@
 package com.msinghal34.pinlockview;
 
+import android.content.Context;
+import android.content.res.TypedArray;
+
 import androidx.annotation.ColorInt;
 
 /**
@@ -16,16 +19,38 @@ public class CustomizationOptionsBundle {
     private int deleteButtonSize;
     private boolean showDeleteButton;
     private boolean showButtonPressAnimation;
+    private int modificationCount;
 
     public CustomizationOptionsBundle() {
     }
 
+    /**
+     * Reads the button related {@code plv_*} attributes, falling back to the library defaults
+     *
+     * @param context    the context used to resolve the defaults
+     * @param typedArray the attributes obtained for {@link R.styleable#PinLockView}
+     * @return the customization options described by the attributes
+     */
+    static CustomizationOptionsBundle fromAttributes(Context context, TypedArray typedArray) {
+        CustomizationOptionsBundle bundle = new CustomizationOptionsBundle();
+        bundle.setTextColor(ResourceUtils.getColor(context, typedArray, R.styleable.PinLockView_plv_textColor, R.color.white));
+        bundle.setButtonBackgroundColor(ResourceUtils.getColor(context, typedArray, R.styleable.PinLockView_plv_buttonBackgroundColor, R.color.white));
+        bundle.setTextSize((int) ResourceUtils.getDimension(context, typedArray, R.styleable.PinLockView_plv_textSize, R.dimen.default_text_size));
+        bundle.setButtonSize((int) ResourceUtils.getDimension(context, typedArray, R.styleable.PinLockView_plv_buttonSize, R.dimen.default_button_size));
+        bundle.setDeleteButtonSize((int) ResourceUtils.getDimension(context, typedArray, R.styleable.PinLockView_plv_deleteButtonSize, R.dimen.default_delete_button_size));
+        bundle.setDeleteButtonDrawable(typedArray.getResourceId(R.styleable.PinLockView_plv_deleteButtonDrawable, R.drawable.ic_delete));
+        bundle.setShowDeleteButton(typedArray.getBoolean(R.styleable.PinLockView_plv_showDeleteButton, true));
+        bundle.setShowButtonPressAnimation(typedArray.getBoolean(R.styleable.PinLockView_plv_showButtonPressAnimation, true));
+        return bundle;
+    }
+
     public @ColorInt int getTextColor() {
         return textColor;
     }
 
     public void setTextColor(@ColorInt int textColor) {
         this.textColor = textColor;
+        modificationCount++;
     }
 
     public @ColorInt int getButtonBackgroundColor() {
@@ -34,6 +59,7 @@ public class CustomizationOptionsBundle {
 
     public void setButtonBackgroundColor(@ColorInt int buttonBackgroundColor) {
         this.buttonBackgroundColor = buttonBackgroundColor;
+        modificationCount++;
     }
 
     public int getTextSize() {
@@ -42,6 +68,7 @@ public class CustomizationOptionsBundle {
 
     public void setTextSize(int textSize) {
         this.textSize = textSize;
+        modificationCount++;
     }
 
     public int getButtonSize() {
@@ -50,6 +77,7 @@ public class CustomizationOptionsBundle {
 
     public void setButtonSize(int buttonSize) {
         this.buttonSize = buttonSize;
+        modificationCount++;
     }
 
     public int getDeleteButtonDrawable() {
@@ -58,6 +86,7 @@ public class CustomizationOptionsBundle {
 
     public void setDeleteButtonDrawable(int deleteButtonDrawableId) {
         this.deleteButtonDrawableId = deleteButtonDrawableId;
+        modificationCount++;
     }
 
     public int getDeleteButtonSize() {
@@ -66,6 +95,7 @@ public class CustomizationOptionsBundle {
 
     public void setDeleteButtonSize(int deleteButtonSize) {
         this.deleteButtonSize = deleteButtonSize;
+        modificationCount++;
     }
 
     public boolean showDeleteButton() {
@@ -74,6 +104,7 @@ public class CustomizationOptionsBundle {
 
     public void setShowDeleteButton(boolean showDeleteButton) {
         this.showDeleteButton = showDeleteButton;
+        modificationCount++;
     }
 
     public boolean showButtonPressAnimation() {
@@ -82,5 +113,13 @@ public class CustomizationOptionsBundle {
 
     public void setShowButtonPressAnimation(boolean showButtonPressAnimation) {
         this.showButtonPressAnimation = showButtonPressAnimation;
+        modificationCount++;
+    }
+
+    /**
+     * Incremented on every change, lets {@link PinLockAdapter} know when its resolved style is stale
+     */
+    int getModificationCount() {
+        return modificationCount;
     }
 }
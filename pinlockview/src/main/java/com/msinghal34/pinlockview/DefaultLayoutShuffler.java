@@ -0,0 +1,69 @@
+package com.msinghal34.pinlockview;
+
+import android.os.Process;
+
+import com.msinghal34.pinlockview.core.LayoutShuffler;
+import com.msinghal34.pinlockview.core.ShuffleArrayUtils;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * The process wide {@link LayoutShuffler} of the default key set, shared by every keypad view.
+ * Its layouts are generated on a single background thread, created on first use. Other key sets,
+ * rarer, are shuffled on the calling thread.
+ */
+final class DefaultLayoutShuffler {
+
+    private static final int[] SORTED_DEFAULT_KEY_SET = sorted(PinLockView.DEFAULT_KEY_SET);
+
+    private static LayoutShuffler sShuffler;
+    private static SecureRandom sRandom;
+
+    private DefaultLayoutShuffler() {
+        throw new AssertionError();
+    }
+
+    static synchronized LayoutShuffler get() {
+        if (sShuffler == null) {
+            Executor executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(() -> {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }, "PinLockView-shuffler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sShuffler = new LayoutShuffler(PinLockView.DEFAULT_KEY_SET, executor);
+        }
+        return sShuffler;
+    }
+
+    /**
+     * Shuffles a key set, from the pool when it holds the default keys
+     *
+     * @param keyValues the key values, left untouched
+     * @return a new shuffled copy of the key values
+     */
+    static int[] shuffle(int[] keyValues) {
+        if (Arrays.equals(sorted(keyValues), SORTED_DEFAULT_KEY_SET)) {
+            return get().next();
+        }
+        return ShuffleArrayUtils.shuffle(keyValues.clone(), getRandom());
+    }
+
+    private static synchronized SecureRandom getRandom() {
+        if (sRandom == null) {
+            sRandom = new SecureRandom();
+        }
+        return sRandom;
+    }
+
+    private static int[] sorted(int[] keyValues) {
+        int[] sorted = keyValues.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
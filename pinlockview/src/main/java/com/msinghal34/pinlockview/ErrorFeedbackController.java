@@ -0,0 +1,136 @@
+package com.msinghal34.pinlockview;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.AnimatorSet;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays the {@link FeedbackEffect}s of a wrong pin on a keypad and its {@link IndicatorDots}.
+ * <p/>
+ * The animators are created once and reused for every error, the views being rendered in a hardware
+ * layer while they play. The pin is reset once, when the feedback ends. New input ends the feedback
+ * early through {@link #cancel()}, in which case resetting is left to the caller.
+ */
+final class ErrorFeedbackController extends AnimatorListenerAdapter {
+
+    private final View mHost;
+    private final Runnable mOnFinished;
+    private FeedbackEffect[] mEffects = {FeedbackEffects.shake()};
+    private IndicatorDots mIndicatorDots;
+
+    private AnimatorSet mAnimator;
+    private boolean mAnimatorStale = true;
+    private boolean mEndingEarly;
+    private int mHostLayerType = View.LAYER_TYPE_NONE;
+    private int mDotsLayerType = View.LAYER_TYPE_NONE;
+
+    ErrorFeedbackController(View host, Runnable onFinished) {
+        this.mHost = host;
+        this.mOnFinished = onFinished;
+    }
+
+    void setEffects(FeedbackEffect... effects) {
+        cancel();
+        this.mEffects = effects.clone();
+        mAnimatorStale = true;
+    }
+
+    void setIndicatorDots(IndicatorDots indicatorDots) {
+        if (mIndicatorDots != indicatorDots) {
+            cancel();
+            this.mIndicatorDots = indicatorDots;
+            mAnimatorStale = true;
+        }
+    }
+
+    boolean isRunning() {
+        return mAnimator != null && mAnimator.isStarted();
+    }
+
+    /**
+     * Plays the feedback, ending one still running without resetting for it
+     */
+    void play() {
+        PinLockDebug.beginSection("PinLockView.error");
+        try {
+            cancel();
+            if (mAnimatorStale) {
+                mAnimator = createAnimator();
+                mAnimatorStale = false;
+            }
+            if (mAnimator == null) {
+                mOnFinished.run();
+                return;
+            }
+            mAnimator.start();
+        } finally {
+            PinLockDebug.endSection();
+        }
+    }
+
+    /**
+     * Ends a running feedback at once, leaving the views at rest. The pin is not reset.
+     *
+     * @return true if a feedback was running
+     */
+    boolean cancel() {
+        if (!isRunning()) {
+            return false;
+        }
+        mEndingEarly = true;
+        try {
+            mAnimator.end();
+        } finally {
+            mEndingEarly = false;
+        }
+        return true;
+    }
+
+    private AnimatorSet createAnimator() {
+        List<Animator> animators = new ArrayList<>(mEffects.length);
+        for (FeedbackEffect effect : mEffects) {
+            Animator animator = effect.createAnimator(mHost, mIndicatorDots);
+            if (animator != null) {
+                animators.add(animator);
+            }
+        }
+        if (animators.isEmpty()) {
+            return null;
+        }
+        AnimatorSet animatorSet = new AnimatorSet();
+        animatorSet.playTogether(animators);
+        animatorSet.addListener(this);
+        return animatorSet;
+    }
+
+    @Override
+    public void onAnimationStart(Animator animation) {
+        mHostLayerType = enableHardwareLayer(mHost);
+        if (mIndicatorDots != null) {
+            mDotsLayerType = enableHardwareLayer(mIndicatorDots);
+        }
+    }
+
+    @Override
+    public void onAnimationEnd(Animator animation) {
+        mHost.setLayerType(mHostLayerType, null);
+        if (mIndicatorDots != null) {
+            mIndicatorDots.setLayerType(mDotsLayerType, null);
+        }
+        if (!mEndingEarly) {
+            mOnFinished.run();
+        }
+    }
+
+    private static int enableHardwareLayer(View view) {
+        int layerType = view.getLayerType();
+        if (layerType == View.LAYER_TYPE_NONE) {
+            view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        }
+        return layerType;
+    }
+}
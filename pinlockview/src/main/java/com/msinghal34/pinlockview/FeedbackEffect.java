@@ -0,0 +1,26 @@
+package com.msinghal34.pinlockview;
+
+import android.animation.Animator;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * An effect played on a wrong pin, see {@link FeedbackEffects} for the built in ones.
+ * <p/>
+ * The animator is created once for a keypad and its {@link IndicatorDots}, and started again on every error.
+ * It must leave the views as it found them when it ends, as it may be ended early by new input.
+ */
+public interface FeedbackEffect {
+
+    /**
+     * Creates the animator playing this effect
+     *
+     * @param keypad        the keypad view
+     * @param indicatorDots the attached dots, or null if none are attached
+     * @return the animator, or null if the effect has nothing to animate on these views
+     */
+    @Nullable
+    Animator createAnimator(@NonNull View keypad, @Nullable IndicatorDots indicatorDots);
+}
@@ -0,0 +1,109 @@
+package com.msinghal34.pinlockview;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.AnimatorSet;
+import android.animation.ObjectAnimator;
+import android.animation.ValueAnimator;
+import android.view.View;
+
+import androidx.annotation.ColorInt;
+
+/**
+ * The built in {@link FeedbackEffect}s, to be combined through the {@code setErrorFeedbackEffects} methods
+ * of the keypad views
+ */
+public class FeedbackEffects {
+
+    private static final long SHAKE_DURATION = 200L;
+    private static final long FLASH_DURATION = 200L;
+    private static final long PULSE_DURATION = 300L;
+    private static final float SHAKE_OFFSET = 100f;
+    private static final float FLASH_ALPHA = 0.4f;
+
+    private FeedbackEffects() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Shakes the keypad and the dots sideways, the default effect
+     */
+    public static FeedbackEffect shake() {
+        return (keypad, indicatorDots) -> {
+            Animator keypadShake = createShake(keypad);
+            if (indicatorDots == null) {
+                return keypadShake;
+            }
+            AnimatorSet shake = new AnimatorSet();
+            shake.playTogether(keypadShake, createShake(indicatorDots));
+            return shake;
+        };
+    }
+
+    private static Animator createShake(View view) {
+        ObjectAnimator shake = ObjectAnimator.ofFloat(view, View.TRANSLATION_X, 0f, SHAKE_OFFSET, -SHAKE_OFFSET, 0f);
+        shake.setDuration(SHAKE_DURATION);
+        return shake;
+    }
+
+    /**
+     * Dims the keypad for an instant, relative to the alpha it has when the effect starts
+     */
+    public static FeedbackEffect flash() {
+        return (keypad, indicatorDots) -> {
+            ValueAnimator flash = ValueAnimator.ofFloat(1f, FLASH_ALPHA, 1f);
+            flash.setDuration(FLASH_DURATION);
+            FlashListener listener = new FlashListener(keypad);
+            flash.addUpdateListener(listener);
+            flash.addListener(listener);
+            return flash;
+        };
+    }
+
+    /**
+     * Tints the dots with a color and back, only applicable if custom drawables for the dots are not provided
+     *
+     * @param color the color of the pulse
+     */
+    public static FeedbackEffect dotColorPulse(@ColorInt int color) {
+        return (keypad, indicatorDots) -> {
+            if (indicatorDots == null) {
+                return null;
+            }
+            ValueAnimator pulse = ValueAnimator.ofFloat(0f, 1f, 0f);
+            pulse.setDuration(PULSE_DURATION);
+            pulse.addUpdateListener(animation ->
+                    indicatorDots.setErrorTint(color, (float) animation.getAnimatedValue()));
+            return pulse;
+        };
+    }
+
+    /**
+     * Scales the alpha of the keypad by the animated value, and puts back the alpha it had before once the
+     * flash ends or is cancelled
+     */
+    private static final class FlashListener extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener {
+
+        private final View mKeypad;
+        private float mRestingAlpha = 1f;
+
+        FlashListener(View keypad) {
+            this.mKeypad = keypad;
+        }
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            mRestingAlpha = mKeypad.getAlpha();
+        }
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            mKeypad.setAlpha(mRestingAlpha * (float) animation.getAnimatedValue());
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            mKeypad.setAlpha(mRestingAlpha);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.msinghal34.pinlockview;
+
+import com.msinghal34.pinlockview.core.KeyLayout;
+
+/**
+ * The listener of the function keys of a {@link KeyLayout}, called on the main thread.
+ * Function keys never change the pin.
+ */
+public interface FunctionKeyListener {
+
+    /**
+     * Triggers when a function key is clicked
+     *
+     * @param functionId the id the key was given in the {@link KeyLayout}
+     */
+    void onFunctionKeyClicked(int functionId);
+}
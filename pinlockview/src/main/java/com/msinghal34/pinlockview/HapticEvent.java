@@ -0,0 +1,18 @@
+package com.msinghal34.pinlockview;
+
+import androidx.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * The events of the keypads which trigger haptic feedback
+ */
+@IntDef({HapticEvent.KEY_TAP, HapticEvent.DELETE, HapticEvent.SUCCESS, HapticEvent.ERROR})
+@Retention(RetentionPolicy.SOURCE)
+public @interface HapticEvent {
+    int KEY_TAP = 0;
+    int DELETE = 1;
+    int SUCCESS = 2;
+    int ERROR = 3;
+}
@@ -0,0 +1,208 @@
+package com.msinghal34.pinlockview;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.VibrationEffect;
+import android.os.Vibrator;
+import android.util.Log;
+import android.view.HapticFeedbackConstants;
+import android.view.View;
+
+import androidx.annotation.RequiresApi;
+import androidx.core.content.ContextCompat;
+
+/**
+ * Plays the haptic feedback of a keypad.
+ * <p/>
+ * From API 26, when the app holds the {@link Manifest.permission#VIBRATE} permission, the {@link VibrationEffect}s
+ * are created once per event and played on a background thread shared by every keypad, so the main thread never
+ * waits on the vibrator. Key taps coming faster than the vibrator can render them are coalesced. Otherwise
+ * the feedback falls back to {@link View#performHapticFeedback(int, int)} on the keypad.
+ */
+final class HapticsController implements Handler.Callback {
+
+    private static final int EVENT_COUNT = 4;
+    private static final long TAP_COALESCE_MILLIS = 40L;
+
+    private static HandlerThread sHapticsThread;
+    private static Boolean sCanVibrate;
+
+    private final View mHost;
+    private final Vibrator mVibrator;
+    private final Handler mHandler;
+    // Built before the handler gets any message, then only replaced, as a copy, from the main thread
+    private volatile VibrationEffect[] mEffects;
+    private boolean mEnabled = true;
+    private long mLastTapMillis;
+
+    HapticsController(View host) {
+        this.mHost = host;
+        Vibrator vibrator = null;
+        VibrationEffect[] effects = null;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && canVibrate(host.getContext())) {
+            vibrator = (Vibrator) host.getContext().getSystemService(Context.VIBRATOR_SERVICE);
+            effects = createDefaultEffects();
+        }
+        if (vibrator != null && vibrator.hasVibrator()) {
+            this.mVibrator = vibrator;
+            this.mEffects = effects;
+            this.mHandler = new Handler(getHapticsLooper(), this);
+        } else {
+            this.mVibrator = null;
+            this.mHandler = null;
+        }
+    }
+
+    /**
+     * Checks the permission once per process, it is granted at install time and can't be revoked
+     */
+    private static synchronized boolean canVibrate(Context context) {
+        if (sCanVibrate == null) {
+            // The library doesn't request the permission itself, the app has to hold it for the vibrator to be used
+            sCanVibrate = ContextCompat.checkSelfPermission(context, Manifest.permission.VIBRATE)
+                    == PackageManager.PERMISSION_GRANTED;
+        }
+        return sCanVibrate;
+    }
+
+    private static synchronized Looper getHapticsLooper() {
+        if (sHapticsThread == null) {
+            sHapticsThread = new HandlerThread("PinLockView-haptics", Process.THREAD_PRIORITY_DISPLAY);
+            sHapticsThread.start();
+        }
+        return sHapticsThread.getLooper();
+    }
+
+    void setEnabled(boolean enabled) {
+        this.mEnabled = enabled;
+        if (!enabled && mHandler != null) {
+            mHandler.removeCallbacksAndMessages(null);
+        }
+    }
+
+    /**
+     * Replaces the effect played for an event. Must be called on the main thread. Without a vibrator the
+     * effects are never played, and the call is ignored
+     *
+     * @param event  the event
+     * @param effect the effect, or null for the default one
+     */
+    @RequiresApi(Build.VERSION_CODES.O)
+    void setEffect(@HapticEvent int event, VibrationEffect effect) {
+        if (mEffects == null) {
+            return;
+        }
+        VibrationEffect[] effects = mEffects.clone();
+        effects[event] = effect != null ? effect : createDefaultEffect(event);
+        mEffects = effects;
+    }
+
+    @RequiresApi(Build.VERSION_CODES.O)
+    private static VibrationEffect[] createDefaultEffects() {
+        VibrationEffect[] effects = new VibrationEffect[EVENT_COUNT];
+        for (int event = 0; event < EVENT_COUNT; event++) {
+            effects[event] = createDefaultEffect(event);
+        }
+        return effects;
+    }
+
+    @RequiresApi(Build.VERSION_CODES.O)
+    private static VibrationEffect createDefaultEffect(@HapticEvent int event) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            switch (event) {
+                case HapticEvent.KEY_TAP:
+                    return VibrationEffect.createPredefined(VibrationEffect.EFFECT_TICK);
+                case HapticEvent.ERROR:
+                    return VibrationEffect.createPredefined(VibrationEffect.EFFECT_HEAVY_CLICK);
+                default:
+                    return VibrationEffect.createPredefined(VibrationEffect.EFFECT_CLICK);
+            }
+        }
+        switch (event) {
+            case HapticEvent.KEY_TAP:
+                return VibrationEffect.createOneShot(10L, VibrationEffect.DEFAULT_AMPLITUDE);
+            case HapticEvent.ERROR:
+                return VibrationEffect.createOneShot(50L, VibrationEffect.DEFAULT_AMPLITUDE);
+            default:
+                return VibrationEffect.createOneShot(20L, VibrationEffect.DEFAULT_AMPLITUDE);
+        }
+    }
+
+    void perform(@HapticEvent int event) {
+        if (!mEnabled) {
+            return;
+        }
+        if (mHandler == null) {
+            performOnView(event);
+            return;
+        }
+
+        if (event == HapticEvent.KEY_TAP || event == HapticEvent.DELETE) {
+            if (mHandler.hasMessages(HapticEvent.KEY_TAP) || mHandler.hasMessages(HapticEvent.DELETE)) {
+                // The previous tap hasn't even been played yet
+                return;
+            }
+        } else {
+            mHandler.removeMessages(HapticEvent.KEY_TAP);
+            mHandler.removeMessages(HapticEvent.DELETE);
+        }
+        mHandler.sendEmptyMessage(event);
+    }
+
+    @Override
+    public boolean handleMessage(Message msg) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return true;
+        }
+        int event = msg.what;
+        if (event == HapticEvent.KEY_TAP || event == HapticEvent.DELETE) {
+            long now = SystemClock.uptimeMillis();
+            if (now - mLastTapMillis < TAP_COALESCE_MILLIS) {
+                return true;
+            }
+            mLastTapMillis = now;
+        }
+
+        try {
+            mVibrator.vibrate(mEffects[event]);
+        } catch (Exception e) {
+            Log.e("PinLockView", "Exception while trying to vibrate", e);
+        }
+        return true;
+    }
+
+    private void performOnView(@HapticEvent int event) {
+        int feedbackConstant;
+        switch (event) {
+            case HapticEvent.KEY_TAP:
+                feedbackConstant = HapticFeedbackConstants.KEYBOARD_TAP;
+                break;
+            case HapticEvent.DELETE:
+                feedbackConstant = HapticFeedbackConstants.VIRTUAL_KEY;
+                break;
+            case HapticEvent.SUCCESS:
+                if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+                    return;
+                }
+                feedbackConstant = HapticFeedbackConstants.CONTEXT_CLICK;
+                break;
+            default:
+                feedbackConstant = HapticFeedbackConstants.LONG_PRESS;
+                break;
+        }
+
+        try {
+            mHost.performHapticFeedback(feedbackConstant, HapticFeedbackConstants.FLAG_IGNORE_GLOBAL_SETTING);
+        } catch (Exception e) {
+            Log.e("PinLockView", "Exception while trying to vibrate", e);
+        }
+    }
+}
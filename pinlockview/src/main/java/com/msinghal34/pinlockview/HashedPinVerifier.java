@@ -0,0 +1,110 @@
+package com.msinghal34.pinlockview;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+
+import com.msinghal34.pinlockview.core.PinHashUtils;
+
+/**
+ * A {@link PinVerifier} checking the pin against a salted PBKDF2 hash kept in {@link SharedPreferences}.
+ * <p/>
+ * The cost of the hash is calibrated once on the device to meet a target latency, and stored with the hash.
+ * After a system update the device is calibrated again, and the hash is upgraded to the new cost the next time
+ * the right pin is entered. Every method apart from {@link #hasPin()} hashes or calibrates, call them from
+ * a background thread, as the view does through {@link PinLockView#setPinVerifier(PinVerifier, java.util.concurrent.Executor)}.
+ */
+public class HashedPinVerifier implements PinVerifier {
+
+    public static final long DEFAULT_TARGET_MILLIS = 100L;
+
+    private static final String KEY_PIN_HASH = "pin_hash";
+    private static final String KEY_ITERATIONS = "iterations";
+    private static final String KEY_CALIBRATION = "calibration";
+
+    private final SharedPreferences mPreferences;
+    private final long mTargetMillis;
+
+    public HashedPinVerifier(Context context, String name) {
+        this(context, name, DEFAULT_TARGET_MILLIS);
+    }
+
+    /**
+     * @param context      the context
+     * @param name         the name of the preferences file holding the hash
+     * @param targetMillis the time a single verification should take on this device
+     */
+    public HashedPinVerifier(Context context, String name, long targetMillis) {
+        if (targetMillis <= 0) {
+            throw new IllegalArgumentException("Invalid target latency: " + targetMillis);
+        }
+        this.mPreferences = context.getApplicationContext().getSharedPreferences(name, Context.MODE_PRIVATE);
+        this.mTargetMillis = targetMillis;
+    }
+
+    /**
+     * Whether a pin has been set. Only reads the preferences, it is safe to call from the main thread
+     * once they are loaded.
+     */
+    public boolean hasPin() {
+        return mPreferences.contains(KEY_PIN_HASH);
+    }
+
+    /**
+     * Hashes and stores a new pin, calibrating the device first if needed
+     *
+     * @param pin the new pin, left untouched
+     */
+    @WorkerThread
+    public synchronized void setPin(@NonNull char[] pin) {
+        mPreferences.edit().putString(KEY_PIN_HASH, PinHashUtils.hash(pin, getCalibratedIterations())).apply();
+    }
+
+    /**
+     * Removes the stored pin
+     */
+    public synchronized void clearPin() {
+        mPreferences.edit().remove(KEY_PIN_HASH).apply();
+    }
+
+    @WorkerThread
+    @Override
+    public synchronized boolean verify(char[] pin) {
+        String record = mPreferences.getString(KEY_PIN_HASH, null);
+        if (record == null || !PinHashUtils.verify(pin, record)) {
+            return false;
+        }
+
+        // The pin is only known here, it is the only time the hash can follow a new calibration
+        int iterations = getCalibratedIterations();
+        if (PinHashUtils.getIterations(record) != iterations) {
+            mPreferences.edit().putString(KEY_PIN_HASH, PinHashUtils.hash(pin, iterations)).apply();
+        }
+        return true;
+    }
+
+    /**
+     * Gets the iteration count meeting the target latency on this device, calibrating it
+     * the first time and after every system update
+     *
+     * @return the iteration count
+     */
+    @WorkerThread
+    public synchronized int getCalibratedIterations() {
+        String calibration = Build.FINGERPRINT + '/' + mTargetMillis;
+        int iterations = mPreferences.getInt(KEY_ITERATIONS, -1);
+        if (iterations > 0 && calibration.equals(mPreferences.getString(KEY_CALIBRATION, null))) {
+            return iterations;
+        }
+
+        iterations = PinHashUtils.calibrate(mTargetMillis);
+        mPreferences.edit()
+                .putInt(KEY_ITERATIONS, iterations)
+                .putString(KEY_CALIBRATION, calibration)
+                .apply();
+        return iterations;
+    }
+}
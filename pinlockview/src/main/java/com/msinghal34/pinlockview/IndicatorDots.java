@@ -1,17 +1,22 @@
 package com.msinghal34.pinlockview;
 
-import android.animation.LayoutTransition;
-import android.animation.ObjectAnimator;
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
 import android.util.AttributeSet;
-import android.view.Gravity;
 import android.view.View;
-import android.view.ViewGroup;
 import android.widget.LinearLayout;
 
+import androidx.annotation.ColorInt;
 import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.appcompat.content.res.AppCompatResources;
+import androidx.core.graphics.ColorUtils;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -19,21 +24,36 @@ import java.lang.annotation.RetentionPolicy;
 /**
  * It represents a set of indicator dots which when attached with {@link PinLockView}
  * can be used to indicate the current length of the input
+ * <p/>
+ * The dots are drawn directly on the canvas, so updating them only invalidates this view
+ * and never triggers a layout pass. The view always measures itself for the full pin length,
+ * in the fill modes the visible dots are centered within that space.
  */
 public class IndicatorDots extends LinearLayout {
 
     private static final int DEFAULT_PIN_LENGTH = 4;
     private static final int DEFAULT_FILL_DRAWABLE = R.drawable.dot_filled;
     private static final int DEFAULT_EMPTY_DRAWABLE = R.drawable.dot_empty;
-    private final int mDotDiameter;
-    private final int mDotMargin;
-    private final int mDotColor;
+    private static final long FILL_ANIMATION_DURATION = 300L;
+    private static final int NO_INDEX = -1;
+
+    private int mDotDiameter;
+    private int mDotMargin;
+    private int mDotColor;
     private final int mFillDrawable;
     private final int mEmptyDrawable;
+    private final Drawable mFilledDot;
+    private final Drawable mEmptyDot;
     private int mPinLength;
     private int mIndicatorType;
     private int mPreviousLength;
 
+    private ValueAnimator mFillAnimator;
+    private int mAnimatedIndex = NO_INDEX;
+    private boolean mAnimatingIn;
+
+    private PinLockMetrics mMetrics;
+
     public IndicatorDots(Context context) {
         this(context, null);
     }
@@ -47,9 +67,9 @@ public class IndicatorDots extends LinearLayout {
 
         TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.IndicatorDots);
         try {
-            mDotDiameter = (int) typedArray.getDimension(R.styleable.IndicatorDots_id_dotDiameter, ResourceUtils.getDimensionInPx(getContext(), R.dimen.default_dot_diameter));
-            mDotMargin = (int) typedArray.getDimension(R.styleable.IndicatorDots_id_dotMargin, ResourceUtils.getDimensionInPx(getContext(), R.dimen.default_dot_spacing));
-            mDotColor = typedArray.getColor(R.styleable.IndicatorDots_id_dotColor, ResourceUtils.getColor(getContext(), R.color.white));
+            mDotDiameter = (int) ResourceUtils.getDimension(getContext(), typedArray, R.styleable.IndicatorDots_id_dotDiameter, R.dimen.default_dot_diameter);
+            mDotMargin = (int) ResourceUtils.getDimension(getContext(), typedArray, R.styleable.IndicatorDots_id_dotMargin, R.dimen.default_dot_spacing);
+            mDotColor = ResourceUtils.getColor(getContext(), typedArray, R.styleable.IndicatorDots_id_dotColor, R.color.white);
             mFillDrawable = typedArray.getResourceId(R.styleable.IndicatorDots_id_filledDotDrawable, DEFAULT_FILL_DRAWABLE);
             mEmptyDrawable = typedArray.getResourceId(R.styleable.IndicatorDots_id_emptyDotDrawable, DEFAULT_EMPTY_DRAWABLE);
             mPinLength = typedArray.getInt(R.styleable.PinLockView_plv_pinLength, DEFAULT_PIN_LENGTH);
@@ -58,106 +78,245 @@ public class IndicatorDots extends LinearLayout {
             typedArray.recycle();
         }
 
-        initView(context);
-    }
+        mFilledDot = createDot(mFillDrawable, DEFAULT_FILL_DRAWABLE);
+        mEmptyDot = createDot(mEmptyDrawable, DEFAULT_EMPTY_DRAWABLE);
 
-    private void initView(Context context) {
         setLayoutDirection(View.LAYOUT_DIRECTION_LTR);
-        setGravity(Gravity.CENTER);
-        if (mIndicatorType == 0) {
+        setWillNotDraw(false);
+    }
+
+    private Drawable createDot(int drawableId, int defaultDrawableId) {
+        Drawable dot = AppCompatResources.getDrawable(getContext(), drawableId);
+        if (dot == null) {
+            return null;
+        }
+        dot = dot.mutate();
+        if (drawableId == defaultDrawableId) {
+            dot.setTintList(ColorStateList.valueOf(mDotColor));
+        }
+        return dot;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int desiredWidth = mPinLength * (mDotDiameter + 2 * mDotMargin) + getPaddingLeft() + getPaddingRight();
+        int desiredHeight = mDotDiameter + getPaddingTop() + getPaddingBottom();
+
+        setMeasuredDimension(resolveSize(Math.max(desiredWidth, getSuggestedMinimumWidth()), widthMeasureSpec),
+                resolveSize(Math.max(desiredHeight, getSuggestedMinimumHeight()), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        if (mMetrics != null) {
+            mMetrics.onIndicatorDrawn();
+        }
+        int step = mDotDiameter + 2 * mDotMargin;
+        float centerX = getPaddingLeft() + (getWidth() - getPaddingLeft() - getPaddingRight()) / 2f;
+        int top = getPaddingTop() + (getHeight() - getPaddingTop() - getPaddingBottom() - mDotDiameter) / 2;
+
+        if (mIndicatorType == IndicatorType.FIXED) {
+            float left = centerX - mPinLength * step / 2f + mDotMargin;
             for (int i = 0; i < mPinLength; i++) {
-                View dot = new View(context);
-                emptyDot(dot);
+                drawDot(canvas, i < mPreviousLength ? mFilledDot : mEmptyDot, left + i * step, top, 1f);
+            }
+            return;
+        }
 
-                addView(dot);
+        int dotCount = mPreviousLength;
+        float laidOutCount = mPreviousLength;
+        float fraction = 1f;
+        if (mAnimatedIndex != NO_INDEX) {
+            fraction = mFillAnimator.getAnimatedFraction();
+            if (mAnimatingIn) {
+                laidOutCount = mPreviousLength - 1 + fraction;
+            } else {
+                dotCount = mPreviousLength + 1;
+                laidOutCount = mPreviousLength + 1 - fraction;
+                fraction = 1f - fraction;
             }
-        } else if (mIndicatorType == 2) {
-            setLayoutTransition(new LayoutTransition());
+        }
+
+        float left = centerX - laidOutCount * step / 2f + mDotMargin;
+        for (int i = 0; i < dotCount; i++) {
+            drawDot(canvas, mFilledDot, left + i * step, top, i == mAnimatedIndex ? fraction : 1f);
         }
     }
 
-    @Override
-    protected void onAttachedToWindow() {
-        super.onAttachedToWindow();
-        // If the indicator type is not fixed
-        if (mIndicatorType != 0) {
-            ViewGroup.LayoutParams params = this.getLayoutParams();
-            params.height = mDotDiameter;
-            requestLayout();
+    private void drawDot(Canvas canvas, Drawable dot, float left, int top, float alpha) {
+        if (dot == null) {
+            return;
+        }
+        int dotLeft = Math.round(left);
+        dot.setBounds(dotLeft, top, dotLeft + mDotDiameter, top + mDotDiameter);
+        if (alpha >= 1f) {
+            dot.draw(canvas);
+            return;
         }
+        // Fades relative to the drawable's own alpha, which custom drawables may have set
+        int dotAlpha = dot.getAlpha();
+        dot.setAlpha((int) (alpha * dotAlpha));
+        dot.draw(canvas);
+        dot.setAlpha(dotAlpha);
     }
 
-    void error() {
-        ObjectAnimator shake = ObjectAnimator.ofFloat(this, "translationX", 0f, 100f, -100f, 0f);
-        shake.setDuration(200);
-        shake.start();
+    /**
+     * Blends the color of the default dots towards another color, used by {@link FeedbackEffects#dotColorPulse(int)}
+     *
+     * @param color    the color to blend towards
+     * @param fraction the blend fraction, 0 for the dot color
+     */
+    void setErrorTint(@ColorInt int color, float fraction) {
+        int tint = fraction <= 0f ? mDotColor : ColorUtils.blendARGB(mDotColor, color, fraction);
+        if (mFilledDot != null && mFillDrawable == DEFAULT_FILL_DRAWABLE) {
+            mFilledDot.setTint(tint);
+        }
+        if (mEmptyDot != null && mEmptyDrawable == DEFAULT_EMPTY_DRAWABLE) {
+            mEmptyDot.setTint(tint);
+        }
+        invalidate();
+    }
+
+    void setMetrics(PinLockMetrics metrics) {
+        this.mMetrics = metrics;
     }
 
     void updateDot(int length) {
-        if (mIndicatorType == 0) {
-            if (length > 0) {
-                if (length > mPreviousLength) {
-                    fillDot(getChildAt(length - 1));
-                } else {
-                    emptyDot(getChildAt(length));
-                }
-                mPreviousLength = length;
-            } else {
-                // When {@code mPinLength} is 0, we need to reset all the views back to empty
-                for (int i = 0; i < getChildCount(); i++) {
-                    View v = getChildAt(i);
-                    emptyDot(v);
-                }
-                mPreviousLength = 0;
-            }
-        } else {
-            if (length > 0) {
-                if (length > mPreviousLength) {
-                    View dot = new View(getContext());
-                    fillDot(dot);
-
-                    addView(dot, length - 1);
-                } else {
-                    removeViewAt(length);
+        updateDot(length, true);
+    }
+
+    /**
+     * @param animate false to show the new length at once, as when restoring the state of the keypad
+     */
+    void updateDot(int length, boolean animate) {
+        if (length == mPreviousLength) {
+            return;
+        }
+        PinLockDebug.beginSection("IndicatorDots.updateDot");
+        try {
+            applyDot(length, animate);
+        } finally {
+            PinLockDebug.endSection();
+        }
+    }
+
+    private void applyDot(int length, boolean animate) {
+        cancelFillAnimation();
+
+        int previousLength = mPreviousLength;
+        mPreviousLength = length;
+        if (animate && mIndicatorType == IndicatorType.FILL_WITH_ANIMATION && Math.abs(length - previousLength) == 1) {
+            mAnimatingIn = length > previousLength;
+            mAnimatedIndex = mAnimatingIn ? length - 1 : length;
+            getFillAnimator().start();
+        }
+        invalidate();
+    }
+
+    private ValueAnimator getFillAnimator() {
+        if (mFillAnimator == null) {
+            mFillAnimator = ValueAnimator.ofFloat(0f, 1f);
+            mFillAnimator.setDuration(FILL_ANIMATION_DURATION);
+            mFillAnimator.addUpdateListener(animation -> invalidate());
+            mFillAnimator.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    mAnimatedIndex = NO_INDEX;
+                    invalidate();
                 }
-                mPreviousLength = length;
-            } else {
-                removeAllViews();
-                mPreviousLength = 0;
-            }
+            });
         }
+        return mFillAnimator;
     }
 
-    private void emptyDot(View dot) {
-        dot.setBackgroundResource(mEmptyDrawable);
-        if (mEmptyDrawable == DEFAULT_EMPTY_DRAWABLE) {
-            dot.setBackgroundTintList(ColorStateList.valueOf(mDotColor));
+    private void cancelFillAnimation() {
+        if (mFillAnimator != null && mAnimatedIndex != NO_INDEX) {
+            mFillAnimator.cancel();
         }
-        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(mDotDiameter, mDotDiameter);
-        params.setMargins(mDotMargin, 0, mDotMargin, 0);
-        dot.setLayoutParams(params);
+        mAnimatedIndex = NO_INDEX;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        cancelFillAnimation();
+        super.onDetachedFromWindow();
     }
 
-    private void fillDot(View dot) {
-        dot.setBackgroundResource(mFillDrawable);
-        if (mFillDrawable == DEFAULT_FILL_DRAWABLE) {
-            dot.setBackgroundTintList(ColorStateList.valueOf(mDotColor));
+    public int getDotDiameter() {
+        return mDotDiameter;
+    }
+
+    /**
+     * Set the diameter of the dots in pixels
+     *
+     * @param dotDiameter the diameter in pixels
+     */
+    public void setDotDiameter(int dotDiameter) {
+        if (mDotDiameter != dotDiameter) {
+            this.mDotDiameter = dotDiameter;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    public int getDotMargin() {
+        return mDotMargin;
+    }
+
+    /**
+     * Set the margin on each side of the dots in pixels
+     *
+     * @param dotMargin the margin in pixels
+     */
+    public void setDotMargin(int dotMargin) {
+        if (mDotMargin != dotMargin) {
+            this.mDotMargin = dotMargin;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    public @ColorInt int getDotColor() {
+        return mDotColor;
+    }
+
+    /**
+     * Set the color of the dots, only applicable if custom drawables for the dots are not provided
+     *
+     * @param dotColor the dot color
+     */
+    public void setDotColor(@ColorInt int dotColor) {
+        if (mDotColor != dotColor) {
+            this.mDotColor = dotColor;
+            if (mFilledDot != null && mFillDrawable == DEFAULT_FILL_DRAWABLE) {
+                mFilledDot.setTintList(ColorStateList.valueOf(dotColor));
+            }
+            if (mEmptyDot != null && mEmptyDrawable == DEFAULT_EMPTY_DRAWABLE) {
+                mEmptyDot.setTintList(ColorStateList.valueOf(dotColor));
+            }
+            invalidate();
         }
-        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(mDotDiameter, mDotDiameter);
-        params.setMargins(mDotMargin, 0, mDotMargin, 0);
-        dot.setLayoutParams(params);
     }
 
+    /**
+     * Set the number of dots. The filled dots are kept, up to the new length, the attached keypad
+     * reports its own length right after.
+     *
+     * @param pinLength the pin length
+     */
     public void setPinLength(int pinLength) {
         this.mPinLength = pinLength;
-        removeAllViews();
-        initView(getContext());
+        cancelFillAnimation();
+        mPreviousLength = Math.min(mPreviousLength, pinLength);
+        requestLayout();
+        invalidate();
     }
 
     public void setIndicatorType(@IndicatorType int type) {
         this.mIndicatorType = type;
-        removeAllViews();
-        initView(getContext());
+        cancelFillAnimation();
+        invalidate();
     }
 
     @IntDef({IndicatorType.FIXED, IndicatorType.FILL, IndicatorType.FILL_WITH_ANIMATION})
@@ -9,8 +9,9 @@ public class ItemSpaceDecoration extends RecyclerView.ItemDecoration {
 
     private final int mHorizontalSpaceWidth;
     private final int mVerticalSpaceHeight;
-    private final int mSpanCount;
+    private int mSpanCount;
     private final boolean mIncludeEdge;
+    private final int[] mOffsets = new int[4];
 
     public ItemSpaceDecoration(int horizontalSpaceWidth, int verticalSpaceHeight, int spanCount, boolean includeEdge) {
         this.mHorizontalSpaceWidth = horizontalSpaceWidth;
@@ -19,26 +20,21 @@ public class ItemSpaceDecoration extends RecyclerView.ItemDecoration {
         this.mIncludeEdge = includeEdge;
     }
 
+    /**
+     * Follows a change of the number of columns, the parent must invalidate its decorations afterwards
+     *
+     * @param spanCount the number of columns
+     */
+    void setSpanCount(int spanCount) {
+        this.mSpanCount = spanCount;
+    }
+
     @Override
     public void getItemOffsets(Rect outRect, View view, RecyclerView parent, RecyclerView.State state) {
 
         int position = parent.getChildAdapterPosition(view);
-        int column = position % mSpanCount;
-
-        if (mIncludeEdge) {
-            outRect.left = mHorizontalSpaceWidth - column * mHorizontalSpaceWidth / mSpanCount;
-            outRect.right = (column + 1) * mHorizontalSpaceWidth / mSpanCount;
-
-            if (position < mSpanCount) {
-                outRect.top = mVerticalSpaceHeight;
-            }
-            outRect.bottom = mVerticalSpaceHeight;
-        } else {
-            outRect.left = column * mHorizontalSpaceWidth / mSpanCount;
-            outRect.right = mHorizontalSpaceWidth - (column + 1) * mHorizontalSpaceWidth / mSpanCount;
-            if (position >= mSpanCount) {
-                outRect.top = mVerticalSpaceHeight;
-            }
-        }
+        SpacingUtils.getItemOffsets(position, mSpanCount, mHorizontalSpaceWidth, mVerticalSpaceHeight, mIncludeEdge, mOffsets);
+        outRect.set(mOffsets[SpacingUtils.LEFT], mOffsets[SpacingUtils.TOP],
+                mOffsets[SpacingUtils.RIGHT], mOffsets[SpacingUtils.BOTTOM]);
     }
 }
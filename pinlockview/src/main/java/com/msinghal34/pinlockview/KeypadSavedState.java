@@ -0,0 +1,104 @@
+package com.msinghal34.pinlockview;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import androidx.customview.view.AbsSavedState;
+
+import java.util.Arrays;
+
+/**
+ * The state of a keypad view kept across configuration changes, a byte per key value.
+ * <p/>
+ * It holds the order of the digit keys when it differs from the {@link com.msinghal34.pinlockview.core.KeyLayout},
+ * and the digits typed so far only when saving them was enabled. The restored digits are zeroed once applied.
+ */
+final class KeypadSavedState extends AbsSavedState {
+
+    private byte[] mKeyValues;
+    private byte[] mDigits;
+
+    KeypadSavedState(@NonNull Parcelable superState) {
+        super(superState);
+    }
+
+    private KeypadSavedState(@NonNull Parcel source, ClassLoader loader) {
+        super(source, loader);
+        mKeyValues = source.createByteArray();
+        mDigits = source.createByteArray();
+    }
+
+    @Override
+    public void writeToParcel(@NonNull Parcel dest, int flags) {
+        super.writeToParcel(dest, flags);
+        dest.writeByteArray(mKeyValues);
+        dest.writeByteArray(mDigits);
+    }
+
+    /**
+     * @return the digits typed so far, or null if they were not saved
+     */
+    byte[] getDigits() {
+        return mDigits;
+    }
+
+    /**
+     * @param digits the digits typed so far, owned by the state from now on, or null not to save them
+     */
+    void setDigits(byte[] digits) {
+        mDigits = digits;
+    }
+
+    /**
+     * Zeroes the saved digits once they are restored
+     */
+    void wipeDigits() {
+        if (mDigits != null) {
+            Arrays.fill(mDigits, (byte) 0);
+            mDigits = null;
+        }
+    }
+
+    /**
+     * @return the saved order of the digit keys, or null if it was the one of the layout
+     */
+    int[] getKeyValues() {
+        if (mKeyValues == null) {
+            return null;
+        }
+        int[] keyValues = new int[mKeyValues.length];
+        for (int i = 0; i < keyValues.length; i++) {
+            keyValues[i] = mKeyValues[i];
+        }
+        return keyValues;
+    }
+
+    void setKeyValues(int[] keyValues) {
+        if (keyValues == null) {
+            mKeyValues = null;
+            return;
+        }
+        mKeyValues = new byte[keyValues.length];
+        for (int i = 0; i < keyValues.length; i++) {
+            mKeyValues[i] = (byte) keyValues[i];
+        }
+    }
+
+    public static final Creator<KeypadSavedState> CREATOR = new ClassLoaderCreator<KeypadSavedState>() {
+        @Override
+        public KeypadSavedState createFromParcel(Parcel source, ClassLoader loader) {
+            return new KeypadSavedState(source, loader);
+        }
+
+        @Override
+        public KeypadSavedState createFromParcel(Parcel source) {
+            return new KeypadSavedState(source, null);
+        }
+
+        @Override
+        public KeypadSavedState[] newArray(int size) {
+            return new KeypadSavedState[size];
+        }
+    };
+}
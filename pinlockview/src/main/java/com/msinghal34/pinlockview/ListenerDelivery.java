@@ -0,0 +1,20 @@
+package com.msinghal34.pinlockview;
+
+import androidx.annotation.IntDef;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * How the pin change and empty callbacks reach the listener. {@link #IMMEDIATE}, the default, calls the
+ * listener right from the key press. {@link #NEXT_FRAME} defers the call to the next frame, so that all the
+ * key presses of a frame produce a single callback with the latest state. The completion of the pin is
+ * always delivered immediately, after any deferred empty callback. A deferred change is dropped then, the
+ * completing digit being reported by the completion alone in both modes.
+ */
+@IntDef({ListenerDelivery.IMMEDIATE, ListenerDelivery.NEXT_FRAME})
+@Retention(RetentionPolicy.SOURCE)
+public @interface ListenerDelivery {
+    int IMMEDIATE = 0;
+    int NEXT_FRAME = 1;
+}
@@ -0,0 +1,726 @@
+package com.msinghal34.pinlockview;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.VibrationEffect;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.View;
+
+import androidx.annotation.RequiresApi;
+
+import com.msinghal34.pinlockview.core.AttemptLimiter;
+import com.msinghal34.pinlockview.core.PinEntryEngine;
+import com.msinghal34.pinlockview.core.PinEvent;
+import com.msinghal34.pinlockview.core.PinEventStream;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the pin entry state shared by the keypad views, {@link PinLockView} and {@link PinKeypadView}.
+ * <p/>
+ * The keypad views only render the keys and forward the clicks here. The pin itself is handled by a
+ * {@link PinEntryEngine}, this class turns its events into haptics, {@link IndicatorDots} updates
+ * and the listener callbacks.
+ * <p/>
+ * When a {@link PinVerifier} is set, the complete pin is verified on its executor instead of being
+ * reported to {@link PinSequenceListener#onComplete(CharSequence)}. Input is ignored until the result
+ * is posted back, and a reset cancels the pending verification.
+ * <p/>
+ * When an {@link AttemptLimiter} is set, every verified pin is recorded as an attempt, and input is
+ * ignored for as long as the limiter locks attempts out. The enabled state of the host is left to the app.
+ * <p/>
+ * Every event is also published to the {@link PinEventStream}, as it happens whatever the listener delivery.
+ */
+final class PinInputController implements PinLockAdapter.OnNumberClickListener, PinLockAdapter.OnDeleteClickListener,
+        PinLockAdapter.OnFunctionClickListener, PinEntryEngine.Listener {
+
+    /**
+     * The callbacks deferred to the next frame, only the latest one is kept
+     */
+    private static final int NO_EVENT = 0;
+    private static final int EVENT_PIN_CHANGE = 1;
+    private static final int EVENT_EMPTY = 2;
+
+    /**
+     * A released touch older than this did not cause the click being handled, e.g. a click from a keyboard
+     */
+    private static final long MAX_TOUCH_TO_CLICK_MILLIS = 500L;
+
+    /**
+     * The names of the listener callbacks, in the trace sections and the watchdog reports
+     */
+    private static final String CALLBACK_PIN_CHANGE = "PinLockListener.onPinChange";
+    private static final String CALLBACK_EMPTY = "PinLockListener.onEmpty";
+    private static final String CALLBACK_COMPLETE = "PinLockListener.onComplete";
+
+    private final View mHost;
+    private final PinEntryEngine mEngine;
+    private final ErrorFeedbackController mErrorFeedback;
+    private final HapticsController mHaptics;
+    private final PinEventStream mEventStream = new PinEventStream();
+
+    private IndicatorDots mIndicatorDots;
+    private PinSequenceListener mPinLockListener;
+    private FunctionKeyListener mFunctionKeyListener;
+    private boolean mShowDeleteButton = true;
+    private boolean mHasDeleteKey = true;
+
+    private PinVerifier mPinVerifier;
+    private Executor mVerificationExecutor;
+    private PinVerificationListener mVerificationListener;
+    private VerificationTask mVerificationTask;
+    private int mVerificationGeneration;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private AttemptLimiter mAttemptLimiter;
+    private AttemptLimitListener mAttemptLimitListener;
+    private boolean mLockedOut;
+    private final Runnable mLockoutEnd = this::onLockoutEnd;
+
+    private int mListenerDelivery = ListenerDelivery.IMMEDIATE;
+    private int mPendingEvent = NO_EVENT;
+    private final Choreographer.FrameCallback mDeliverPendingEvent = frameTimeNanos -> deliverPendingEvent();
+
+    private PinLockMetrics mMetrics;
+    private long mTouchUpTime;
+    private long mKeyEventNanos;
+
+    private boolean mSavePinEnabled;
+    private boolean mRestoring;
+
+    PinInputController(View host, int pinLength) {
+        this.mHost = host;
+        this.mEngine = new PinEntryEngine(pinLength);
+        this.mErrorFeedback = new ErrorFeedbackController(host, mEngine::reset);
+        this.mHaptics = new HapticsController(host);
+        mEngine.setListener(this);
+    }
+
+    @Override
+    public void onNumberClicked(int keyValue) {
+        if (isInputLocked()) {
+            return;
+        }
+        mHaptics.perform(HapticEvent.KEY_TAP);
+        finishErrorFeedback();
+        mKeyEventNanos = getKeyEventNanos();
+        mEngine.pressDigit(keyValue);
+        mKeyEventNanos = 0;
+    }
+
+    @Override
+    public void onDeleteClicked() {
+        if (isInputLocked()) {
+            return;
+        }
+        mHaptics.perform(HapticEvent.DELETE);
+        finishErrorFeedback();
+        mKeyEventNanos = getKeyEventNanos();
+        mEngine.pressDelete();
+        mKeyEventNanos = 0;
+    }
+
+    @Override
+    public void onFunctionClicked(int functionId) {
+        if (isInputLocked()) {
+            return;
+        }
+        mHaptics.perform(HapticEvent.KEY_TAP);
+        if (mFunctionKeyListener != null) {
+            mFunctionKeyListener.onFunctionKeyClicked(functionId);
+        }
+    }
+
+    /**
+     * Notes the release of a touch on the keypad, as the start of the key press it triggers
+     *
+     * @param eventTime the time of the touch event, in the {@link SystemClock#uptimeMillis()} time base
+     */
+    void onTouchUp(long eventTime) {
+        if (mMetrics != null) {
+            mTouchUpTime = eventTime;
+        }
+    }
+
+    private long getKeyEventNanos() {
+        if (mMetrics == null) {
+            return 0;
+        }
+        long touchUpTime = mTouchUpTime;
+        mTouchUpTime = 0;
+        if (touchUpTime > 0 && SystemClock.uptimeMillis() - touchUpTime <= MAX_TOUCH_TO_CLICK_MILLIS) {
+            // Both clocks are the monotonic clock on Android
+            return touchUpTime * 1_000_000L;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Enters a sequence of digits at once, without the haptics of the individual key presses
+     */
+    boolean enterDigits(CharSequence digits) {
+        if (isInputLocked()) {
+            return false;
+        }
+        finishErrorFeedback();
+        return mEngine.enterDigits(digits);
+    }
+
+    @Override
+    public void onLengthChanged(int length) {
+        if (isIndicatorDotsAttached()) {
+            mIndicatorDots.updateDot(length, !mRestoring);
+            if (mMetrics != null && mKeyEventNanos != 0) {
+                mMetrics.onIndicatorUpdated(mKeyEventNanos);
+                mKeyEventNanos = 0;
+            }
+        }
+    }
+
+    @Override
+    public void onPinChange(int length) {
+        publishEvent(PinEvent.Type.PIN_CHANGE);
+        if (mPinLockListener == null) {
+            return;
+        }
+        if (mListenerDelivery == ListenerDelivery.NEXT_FRAME) {
+            scheduleEvent(EVENT_PIN_CHANGE);
+        } else {
+            dispatchPinChange();
+        }
+    }
+
+    @Override
+    public void onEmpty() {
+        publishEvent(PinEvent.Type.EMPTY);
+        if (mPinLockListener == null) {
+            return;
+        }
+        if (mListenerDelivery == ListenerDelivery.NEXT_FRAME) {
+            scheduleEvent(EVENT_EMPTY);
+        } else {
+            dispatchEmpty();
+        }
+    }
+
+    private void scheduleEvent(int event) {
+        if (mPendingEvent == NO_EVENT) {
+            Choreographer.getInstance().postFrameCallback(mDeliverPendingEvent);
+        }
+        mPendingEvent = event;
+    }
+
+    /**
+     * Delivers the latest deferred event with the current state of the pin. A change is dropped
+     * if the pin has been reset since, as resets are not reported, or completed since, as the completing
+     * digit is only reported by onComplete, like with {@link ListenerDelivery#IMMEDIATE}
+     */
+    private void deliverPendingEvent() {
+        if (mPendingEvent == NO_EVENT) {
+            return;
+        }
+        Choreographer.getInstance().removeFrameCallback(mDeliverPendingEvent);
+        int event = mPendingEvent;
+        mPendingEvent = NO_EVENT;
+        if (mPinLockListener == null) {
+            return;
+        }
+
+        if (event == EVENT_EMPTY) {
+            dispatchEmpty();
+        } else if (mEngine.length() > 0 && !mEngine.isFull()) {
+            dispatchPinChange();
+        }
+    }
+
+    private void dispatchPinChange() {
+        long start = startCallback(CALLBACK_PIN_CHANGE);
+        try {
+            mPinLockListener.onPinChange(mEngine.length(), mEngine.getPin());
+        } finally {
+            endCallback(CALLBACK_PIN_CHANGE, start);
+        }
+    }
+
+    private void dispatchEmpty() {
+        long start = startCallback(CALLBACK_EMPTY);
+        try {
+            mPinLockListener.onEmpty();
+        } finally {
+            endCallback(CALLBACK_EMPTY, start);
+        }
+    }
+
+    /**
+     * Opens the trace section of a listener callback, and times it if anyone is watching
+     */
+    private long startCallback(String callback) {
+        PinLockDebug.beginSection(callback);
+        return mMetrics != null || PinLockDebug.isWatchdogEnabled() ? System.nanoTime() : 0;
+    }
+
+    private void endCallback(String callback, long start) {
+        PinLockDebug.endSection();
+        if (start == 0) {
+            return;
+        }
+        long durationNanos = System.nanoTime() - start;
+        if (mMetrics != null) {
+            mMetrics.onListenerCallback(durationNanos);
+        }
+        PinLockDebug.checkCallback(callback, durationNanos);
+    }
+
+    @Override
+    public boolean onComplete(boolean repeated) {
+        // Keeps the callbacks in order, the completion itself is never deferred
+        deliverPendingEvent();
+        if (!repeated) {
+            publishEvent(PinEvent.Type.COMPLETE);
+        }
+        if (mPinVerifier != null) {
+            if (!repeated) {
+                startVerification();
+            }
+            return false;
+        }
+        if (mPinLockListener == null) {
+            return false;
+        }
+        boolean verified;
+        long start = startCallback(CALLBACK_COMPLETE);
+        try {
+            verified = mPinLockListener.onComplete(mEngine.getPin());
+        } finally {
+            endCallback(CALLBACK_COMPLETE, start);
+        }
+        if (repeated) {
+            return false;
+        }
+
+        playResultFeedback(verified);
+        recordAttempt(verified);
+        // A wrong pin stays on the dots while the error feedback plays, which then resets it
+        return verified;
+    }
+
+    private void playResultFeedback(boolean verified) {
+        publishEvent(verified ? PinEvent.Type.VERIFIED : PinEvent.Type.REJECTED);
+        if (verified) {
+            mHaptics.perform(HapticEvent.SUCCESS);
+        } else {
+            mHaptics.perform(HapticEvent.ERROR);
+            mErrorFeedback.play();
+        }
+    }
+
+    private void publishEvent(@PinEvent.Type int type) {
+        // Nothing is allocated until someone subscribes
+        if (mEventStream.hasSubscribers()) {
+            mEventStream.publish(new PinEvent(type, mEngine.length()));
+        }
+    }
+
+    PinEventStream getEventStream() {
+        return mEventStream;
+    }
+
+    /**
+     * Ends the error feedback early when new input comes in, resetting the wrong pin right away
+     * so that the input applies to a new pin
+     */
+    private void finishErrorFeedback() {
+        if (mErrorFeedback.cancel()) {
+            mEngine.reset();
+        }
+    }
+
+    private void startVerification() {
+        CharSequence pin = mEngine.getPin();
+        char[] pinCopy = new char[pin.length()];
+        for (int i = 0; i < pinCopy.length; i++) {
+            pinCopy[i] = pin.charAt(i);
+        }
+
+        VerificationTask task = new VerificationTask(mPinVerifier, pinCopy, ++mVerificationGeneration);
+        mVerificationTask = task;
+        if (mVerificationListener != null) {
+            mVerificationListener.onVerificationStarted();
+        }
+        try {
+            mVerificationExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            Log.e("PinLockView", "The verifier executor rejected the pin", e);
+            // Cancelling wipes the copy. The pin was never checked, so it is not recorded as an attempt
+            task.cancel(false);
+            mVerificationTask = null;
+            playResultFeedback(false);
+            if (mVerificationListener != null) {
+                mVerificationListener.onVerificationFinished(false);
+            }
+        }
+    }
+
+    private void onVerificationFinished(int generation, boolean verified) {
+        if (generation != mVerificationGeneration || mVerificationTask == null) {
+            // Stale result of a verification cancelled by a reset
+            return;
+        }
+        mVerificationTask = null;
+
+        playResultFeedback(verified);
+        if (verified) {
+            mEngine.reset();
+        }
+        recordAttempt(verified);
+        if (mVerificationListener != null) {
+            mVerificationListener.onVerificationFinished(verified);
+        }
+    }
+
+    private void cancelVerification() {
+        if (mVerificationTask == null) {
+            return;
+        }
+        mVerificationGeneration++;
+        mVerificationTask.cancel(true);
+        mVerificationTask = null;
+        if (mVerificationListener != null) {
+            mVerificationListener.onVerificationCancelled();
+        }
+    }
+
+    boolean isVerifying() {
+        return mVerificationTask != null;
+    }
+
+    private boolean isInputLocked() {
+        return mVerificationTask != null || mLockedOut;
+    }
+
+    private void recordAttempt(boolean verified) {
+        if (mAttemptLimiter == null) {
+            return;
+        }
+        if (verified) {
+            mAttemptLimiter.recordSuccess();
+        } else {
+            long lockoutMillis = mAttemptLimiter.recordFailure();
+            if (lockoutMillis > 0) {
+                startLockout(lockoutMillis);
+            }
+        }
+    }
+
+    private void startLockout(long remainingMillis) {
+        mLockedOut = true;
+        mMainHandler.removeCallbacks(mLockoutEnd);
+        mMainHandler.postDelayed(mLockoutEnd, remainingMillis);
+        if (mAttemptLimitListener != null) {
+            mAttemptLimitListener.onLockout(remainingMillis);
+        }
+    }
+
+    private void onLockoutEnd() {
+        long remainingMillis = mAttemptLimiter == null ? 0 : mAttemptLimiter.getRemainingLockoutMillis();
+        if (remainingMillis > 0) {
+            // The clock moved, or the limiter was locked from somewhere else in the meantime
+            mMainHandler.postDelayed(mLockoutEnd, remainingMillis);
+            return;
+        }
+        endLockout();
+        if (mAttemptLimitListener != null) {
+            mAttemptLimitListener.onLockoutExpired();
+        }
+    }
+
+    private void endLockout() {
+        mMainHandler.removeCallbacks(mLockoutEnd);
+        mLockedOut = false;
+    }
+
+    private void refreshLockout() {
+        long remainingMillis = mAttemptLimiter == null ? 0 : mAttemptLimiter.getRemainingLockoutMillis();
+        if (remainingMillis > 0) {
+            startLockout(remainingMillis);
+        } else if (mLockedOut) {
+            onLockoutEnd();
+        }
+    }
+
+    boolean isLockedOut() {
+        return mLockedOut;
+    }
+
+    void setAttemptLimiter(AttemptLimiter attemptLimiter) {
+        endLockout();
+        this.mAttemptLimiter = attemptLimiter;
+        refreshLockout();
+    }
+
+    void setAttemptLimitListener(AttemptLimitListener attemptLimitListener) {
+        this.mAttemptLimitListener = attemptLimitListener;
+    }
+
+    void onAttachedToWindow() {
+        refreshLockout();
+    }
+
+    void onDetachedFromWindow() {
+        deliverPendingEvent();
+        finishErrorFeedback();
+        // Nothing keeps the detached host alive until the end of a lockout, it is checked again on attach
+        mMainHandler.removeCallbacks(mLockoutEnd);
+    }
+
+    boolean isSavePinEnabled() {
+        return mSavePinEnabled;
+    }
+
+    void setSavePinEnabled(boolean savePinEnabled) {
+        this.mSavePinEnabled = savePinEnabled;
+    }
+
+    /**
+     * Copies the digits to save with the state of the host, only when enabled and while the pin is being typed
+     *
+     * @return the digits, or null if there is nothing to save
+     */
+    byte[] saveDigits() {
+        if (!mSavePinEnabled || mEngine.length() == 0 || mEngine.isFull() || isInputLocked()) {
+            return null;
+        }
+        return mEngine.copyDigits();
+    }
+
+    /**
+     * Restores the digits saved with the state of the host, without any callback nor animation
+     */
+    void restoreDigits(byte[] digits) {
+        if (isInputLocked()) {
+            return;
+        }
+        mRestoring = true;
+        try {
+            mErrorFeedback.cancel();
+            mEngine.restoreDigits(digits);
+        } finally {
+            mRestoring = false;
+        }
+    }
+
+    void setPinVerifier(PinVerifier pinVerifier, Executor executor) {
+        if (pinVerifier != null && executor == null) {
+            throw new IllegalArgumentException("An executor is required to run the pin verifier");
+        }
+        cancelVerification();
+        this.mPinVerifier = pinVerifier;
+        this.mVerificationExecutor = pinVerifier == null ? null : executor;
+    }
+
+    void setPinVerificationListener(PinVerificationListener verificationListener) {
+        this.mVerificationListener = verificationListener;
+    }
+
+    void setPinLockListener(PinLockListener pinLockListener) {
+        this.mPinLockListener = pinLockListener == null ? null : new PinLockListenerAdapter(pinLockListener);
+    }
+
+    void setPinSequenceListener(PinSequenceListener pinSequenceListener) {
+        this.mPinLockListener = pinSequenceListener;
+    }
+
+    void setFunctionKeyListener(FunctionKeyListener functionKeyListener) {
+        this.mFunctionKeyListener = functionKeyListener;
+    }
+
+    void setListenerDelivery(@ListenerDelivery int listenerDelivery) {
+        this.mListenerDelivery = listenerDelivery;
+        if (listenerDelivery == ListenerDelivery.IMMEDIATE) {
+            deliverPendingEvent();
+        }
+    }
+
+    @ListenerDelivery
+    int getListenerDelivery() {
+        return mListenerDelivery;
+    }
+
+    int getPinLength() {
+        return mEngine.getPinLength();
+    }
+
+    void setPinLength(int pinLength) {
+        cancelVerification();
+        mErrorFeedback.cancel();
+        mEngine.setPinLength(pinLength);
+
+        if (isIndicatorDotsAttached()) {
+            mIndicatorDots.setPinLength(pinLength);
+            mIndicatorDots.updateDot(mEngine.length(), false);
+        }
+    }
+
+    void setShowDeleteButton(boolean showDeleteButton) {
+        this.mShowDeleteButton = showDeleteButton;
+        updateRestartOnOverflow();
+    }
+
+    void setHasDeleteKey(boolean hasDeleteKey) {
+        this.mHasDeleteKey = hasDeleteKey;
+        updateRestartOnOverflow();
+    }
+
+    private void updateRestartOnOverflow() {
+        // Without a delete button the only way out of a full pin is to start a new one
+        mEngine.setRestartOnOverflow(!mShowDeleteButton || !mHasDeleteKey);
+    }
+
+    void setVibrate(boolean vibrate) {
+        mHaptics.setEnabled(vibrate);
+    }
+
+    @RequiresApi(Build.VERSION_CODES.O)
+    void setHapticEffect(@HapticEvent int event, VibrationEffect effect) {
+        mHaptics.setEffect(event, effect);
+    }
+
+    int getPinDigitCount() {
+        return mEngine.length();
+    }
+
+    void reset() {
+        cancelVerification();
+        mErrorFeedback.cancel();
+        mEngine.reset();
+    }
+
+    void error() {
+        cancelVerification();
+        mErrorFeedback.play();
+    }
+
+    void setErrorFeedbackEffects(FeedbackEffect... effects) {
+        mErrorFeedback.setEffects(effects);
+    }
+
+    boolean isIndicatorDotsAttached() {
+        return mIndicatorDots != null;
+    }
+
+    IndicatorDots getIndicatorDots() {
+        return mIndicatorDots;
+    }
+
+    void attachIndicatorDots(IndicatorDots indicatorDots) {
+        if (mIndicatorDots != null) {
+            mIndicatorDots.setMetrics(null);
+        }
+        this.mIndicatorDots = indicatorDots;
+        mErrorFeedback.setIndicatorDots(indicatorDots);
+        if (indicatorDots != null) {
+            indicatorDots.setMetrics(mMetrics);
+            indicatorDots.updateDot(mEngine.length(), false);
+        }
+    }
+
+    PinLockMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    void setMetrics(PinLockMetrics metrics) {
+        this.mMetrics = metrics;
+        this.mTouchUpTime = 0;
+        if (isIndicatorDotsAttached()) {
+            mIndicatorDots.setMetrics(metrics);
+        }
+    }
+
+    /**
+     * Runs the {@link PinVerifier} on a copy of the pin, wiping the copy once done or cancelled
+     * and posting the result back to the main thread. The copy is only wiped once the verifier has
+     * returned, a cancelled verification may still be reading it.
+     */
+    private final class VerificationTask extends FutureTask<Boolean> {
+
+        private final char[] mPinCopy;
+        private final int mGeneration;
+        // Set by whichever of run and a cancellation comes first, that one wipes the copy
+        private final AtomicBoolean mClaimed = new AtomicBoolean();
+
+        VerificationTask(PinVerifier pinVerifier, char[] pinCopy, int generation) {
+            super(() -> pinVerifier.verify(pinCopy));
+            this.mPinCopy = pinCopy;
+            this.mGeneration = generation;
+        }
+
+        @Override
+        public void run() {
+            if (!mClaimed.compareAndSet(false, true)) {
+                // Cancelled before it started, the copy is already wiped
+                return;
+            }
+            try {
+                super.run();
+            } finally {
+                Arrays.fill(mPinCopy, (char) 0);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                if (mClaimed.compareAndSet(false, true)) {
+                    Arrays.fill(mPinCopy, (char) 0);
+                }
+                return;
+            }
+
+            boolean verified;
+            try {
+                verified = Boolean.TRUE.equals(get());
+            } catch (ExecutionException | InterruptedException e) {
+                Log.e("PinLockView", "Exception while verifying the pin", e);
+                verified = false;
+            }
+            final boolean result = verified;
+            mMainHandler.post(() -> onVerificationFinished(mGeneration, result));
+        }
+    }
+
+    /**
+     * Adapts a {@link PinLockListener} to the {@link PinSequenceListener} used internally,
+     * creating the {@link String} copies the legacy callbacks expect
+     */
+    private static final class PinLockListenerAdapter implements PinSequenceListener {
+
+        private final PinLockListener mListener;
+
+        PinLockListenerAdapter(PinLockListener listener) {
+            this.mListener = listener;
+        }
+
+        @Override
+        public boolean onComplete(CharSequence pin) {
+            return Boolean.TRUE.equals(mListener.onComplete(pin.toString()));
+        }
+
+        @Override
+        public void onEmpty() {
+            mListener.onEmpty();
+        }
+
+        @Override
+        public void onPinChange(int pinLength, CharSequence intermediatePin) {
+            mListener.onPinChange(pinLength, intermediatePin.toString());
+        }
+    }
+}
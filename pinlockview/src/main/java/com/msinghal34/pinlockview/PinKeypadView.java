@@ -0,0 +1,747 @@
+package com.msinghal34.pinlockview;
+
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.LayerDrawable;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Parcelable;
+import android.os.VibrationEffect;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.appcompat.content.res.AppCompatResources;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import com.msinghal34.pinlockview.core.AttemptLimiter;
+import com.msinghal34.pinlockview.core.KeyLayout;
+import com.msinghal34.pinlockview.core.PinEventStream;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A lightweight alternative to {@link PinLockView} which draws all the keys of the keypad
+ * in a single {@link View}, instead of inflating a view hierarchy for every key.
+ * <p/>
+ * It accepts the same {@code plv_*} attributes and {@link CustomizationOptionsBundle} as {@link PinLockView},
+ * and behaves the same way towards the listeners and the attached {@link IndicatorDots}.
+ */
+public class PinKeypadView extends View {
+
+    private static final int NO_POSITION = -1;
+    private static final int BUTTON_BACKGROUND_ALPHA = 0x33;
+    private static final int PRESSED_ALPHA = 0x3D;
+
+    private final Paint mButtonPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mPressedPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint mTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Rect mKeyBounds = new Rect();
+
+    private int mHorizontalSpacing, mVerticalSpacing;
+    private float mTextBaselineOffset;
+    private int mOriginX, mOriginY;
+    private int mPressedPosition = NO_POSITION;
+
+    private PinInputController mInputController;
+    private CustomizationOptionsBundle mCustomizationOptionsBundle;
+    private Drawable mDeleteDrawable;
+    private KeypadAccessibilityHelper mAccessibilityHelper;
+    private KeyLayout mKeyLayout = KeyLayout.DEFAULT;
+    private KeyLayout mShownKeyLayout = KeyLayout.DEFAULT;
+    private int[] mCustomKeySet;
+
+    public PinKeypadView(Context context) {
+        super(context);
+        init(null, 0);
+    }
+
+    public PinKeypadView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        init(attrs, 0);
+    }
+
+    public PinKeypadView(Context context, @Nullable AttributeSet attrs, int defStyle) {
+        super(context, attrs, defStyle);
+        init(attrs, defStyle);
+    }
+
+    private void init(AttributeSet attributeSet, int defStyle) {
+
+        TypedArray typedArray = getContext().obtainStyledAttributes(attributeSet, R.styleable.PinLockView, defStyle, 0);
+
+        try {
+            mInputController = new PinInputController(this, typedArray.getInt(R.styleable.PinLockView_plv_pinLength, PinLockView.DEFAULT_PIN_LENGTH));
+            mInputController.setVibrate(typedArray.getBoolean(R.styleable.PinLockView_plv_vibrate, true));
+            mHorizontalSpacing = (int) ResourceUtils.getDimension(getContext(), typedArray, R.styleable.PinLockView_plv_horizontalSpacing, R.dimen.default_horizontal_spacing);
+            mVerticalSpacing = (int) ResourceUtils.getDimension(getContext(), typedArray, R.styleable.PinLockView_plv_verticalSpacing, R.dimen.default_vertical_spacing);
+            mCustomizationOptionsBundle = CustomizationOptionsBundle.fromAttributes(getContext(), typedArray);
+        } finally {
+            typedArray.recycle();
+        }
+
+        mTextPaint.setTextAlign(Paint.Align.CENTER);
+
+        mAccessibilityHelper = new KeypadAccessibilityHelper(this);
+        ViewCompat.setAccessibilityDelegate(this, mAccessibilityHelper);
+
+        applyCustomizationOptions();
+    }
+
+    private void applyCustomizationOptions() {
+        CustomizationOptionsBundle options = mCustomizationOptionsBundle;
+        int backgroundColor = options.getButtonBackgroundColor();
+        int backgroundAlpha = Color.alpha(backgroundColor) * BUTTON_BACKGROUND_ALPHA / 0xFF;
+        mButtonPaint.setColor((backgroundColor & 0x00FFFFFF) | (backgroundAlpha << 24));
+        mPressedPaint.setColor((options.getTextColor() & 0x00FFFFFF) | (PRESSED_ALPHA << 24));
+        mTextPaint.setColor(options.getTextColor());
+        mTextPaint.setTextSize(options.getTextSize());
+
+        Paint.FontMetrics fontMetrics = mTextPaint.getFontMetrics();
+        mTextBaselineOffset = -(fontMetrics.ascent + fontMetrics.descent) / 2f;
+
+        mDeleteDrawable = options.showDeleteButton() ? createDeleteDrawable(options) : null;
+        mInputController.setShowDeleteButton(options.showDeleteButton());
+    }
+
+    private Drawable createDeleteDrawable(CustomizationOptionsBundle options) {
+        Drawable drawable = AppCompatResources.getDrawable(getContext(), options.getDeleteButtonDrawable());
+        if (drawable == null) {
+            return null;
+        }
+        drawable = drawable.mutate();
+
+        if (options.getDeleteButtonDrawable() == R.drawable.ic_delete) {
+            try {
+                LayerDrawable layeredDrawable = (LayerDrawable) drawable;
+                Drawable foreground = layeredDrawable.findDrawableByLayerId(R.id.foreground);
+                Drawable background = layeredDrawable.findDrawableByLayerId(R.id.background);
+
+                if (foreground != null) {
+                    foreground.setColorFilter(new PorterDuffColorFilter(options.getTextColor(), PorterDuff.Mode.SRC_IN));
+                }
+
+                if (background != null) {
+                    background.setColorFilter(new PorterDuffColorFilter(options.getButtonBackgroundColor(), PorterDuff.Mode.SRC_IN));
+                }
+            } catch (Exception e) {
+                Log.e("PinLockView", "Something went wrong while handling layer drawable");
+                drawable.setColorFilter(new PorterDuffColorFilter(options.getTextColor(), PorterDuff.Mode.SRC_ATOP));
+            }
+        }
+        return drawable;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int buttonSize = mCustomizationOptionsBundle.getButtonSize();
+        int columnCount = mShownKeyLayout.getColumnCount();
+        int rowCount = mShownKeyLayout.getRowCount();
+        int desiredWidth = columnCount * buttonSize + (columnCount - 1) * mHorizontalSpacing
+                + getPaddingLeft() + getPaddingRight();
+        int desiredHeight = rowCount * buttonSize + (rowCount - 1) * mVerticalSpacing
+                + getPaddingTop() + getPaddingBottom();
+
+        setMeasuredDimension(resolveSize(Math.max(desiredWidth, getSuggestedMinimumWidth()), widthMeasureSpec),
+                resolveSize(Math.max(desiredHeight, getSuggestedMinimumHeight()), heightMeasureSpec));
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateOrigin();
+    }
+
+    private void updateOrigin() {
+        int buttonSize = mCustomizationOptionsBundle.getButtonSize();
+        int columnCount = mShownKeyLayout.getColumnCount();
+        int rowCount = mShownKeyLayout.getRowCount();
+        int contentWidth = columnCount * buttonSize + (columnCount - 1) * mHorizontalSpacing;
+        int contentHeight = rowCount * buttonSize + (rowCount - 1) * mVerticalSpacing;
+        int availableWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+        int availableHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+
+        mOriginX = getPaddingLeft() + (availableWidth - contentWidth) / 2;
+        mOriginY = getPaddingTop() + (availableHeight - contentHeight) / 2;
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        float radius = mCustomizationOptionsBundle.getButtonSize() / 2f;
+        boolean showPressed = mCustomizationOptionsBundle.showButtonPressAnimation();
+
+        KeyLayout keyLayout = mShownKeyLayout;
+        for (int position = 0; position < keyLayout.getCellCount(); position++) {
+            if (!isKeyVisible(position)) {
+                continue;
+            }
+            getKeyBounds(position, mKeyBounds);
+            float centerX = mKeyBounds.exactCenterX();
+            float centerY = mKeyBounds.exactCenterY();
+
+            if (keyLayout.getType(position) == KeyLayout.KeyType.DELETE) {
+                int half = mCustomizationOptionsBundle.getDeleteButtonSize() / 2;
+                mDeleteDrawable.setBounds((int) centerX - half, (int) centerY - half,
+                        (int) centerX + half, (int) centerY + half);
+                mDeleteDrawable.draw(canvas);
+            } else {
+                canvas.drawCircle(centerX, centerY, radius, mButtonPaint);
+                canvas.drawText(keyLayout.getLabel(position), centerX, centerY + mTextBaselineOffset, mTextPaint);
+            }
+
+            if (showPressed && position == mPressedPosition) {
+                canvas.drawCircle(centerX, centerY, radius, mPressedPaint);
+            }
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        mInputController.onAttachedToWindow();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mInputController.onDetachedFromWindow();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        KeypadSavedState state = new KeypadSavedState(super.onSaveInstanceState());
+        if (!mShownKeyLayout.equals(mKeyLayout)) {
+            state.setKeyValues(mShownKeyLayout.getKeyValues());
+        }
+        state.setDigits(mInputController.saveDigits());
+        return state;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof KeypadSavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        KeypadSavedState savedState = (KeypadSavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+
+        int[] keyValues = savedState.getKeyValues();
+        if (keyValues != null && keyValues.length == mKeyLayout.getDigitCount()) {
+            this.mCustomKeySet = keyValues;
+            showKeyLayout(mKeyLayout.withKeyValues(keyValues));
+        }
+        byte[] digits = savedState.getDigits();
+        if (digits != null) {
+            mInputController.restoreDigits(digits);
+            savedState.wipeDigits();
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!isEnabled() || mInputController.isLockedOut()) {
+            return super.onTouchEvent(event);
+        }
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                setPressedPosition(getKeyAt(event.getX(), event.getY()));
+                return mPressedPosition != NO_POSITION;
+            case MotionEvent.ACTION_MOVE:
+                if (mPressedPosition != NO_POSITION && getKeyAt(event.getX(), event.getY()) != mPressedPosition) {
+                    setPressedPosition(NO_POSITION);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (mPressedPosition != NO_POSITION) {
+                    int position = mPressedPosition;
+                    setPressedPosition(NO_POSITION);
+                    mInputController.onTouchUp(event.getEventTime());
+                    performClick();
+                    onKeyClicked(position);
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                setPressedPosition(NO_POSITION);
+                return true;
+            default:
+                return super.onTouchEvent(event);
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return mAccessibilityHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    private void setPressedPosition(int position) {
+        if (mPressedPosition != position) {
+            mPressedPosition = position;
+            invalidate();
+        }
+    }
+
+    private void onKeyClicked(int position) {
+        switch (mShownKeyLayout.getType(position)) {
+            case KeyLayout.KeyType.DELETE:
+                mInputController.onDeleteClicked();
+                break;
+            case KeyLayout.KeyType.FUNCTION:
+                mInputController.onFunctionClicked(mShownKeyLayout.getValue(position));
+                break;
+            default:
+                mInputController.onNumberClicked(mShownKeyLayout.getValue(position));
+                break;
+        }
+        mAccessibilityHelper.sendEventForVirtualView(position, AccessibilityEvent.TYPE_VIEW_CLICKED);
+    }
+
+    private boolean isKeyVisible(int position) {
+        int keyType = mShownKeyLayout.getType(position);
+        if (keyType == KeyLayout.KeyType.EMPTY) {
+            return false;
+        }
+        return keyType != KeyLayout.KeyType.DELETE || mDeleteDrawable != null;
+    }
+
+    private void getKeyBounds(int position, Rect outBounds) {
+        int buttonSize = mCustomizationOptionsBundle.getButtonSize();
+        int columnCount = mShownKeyLayout.getColumnCount();
+        int left = mOriginX + (position % columnCount) * (buttonSize + mHorizontalSpacing);
+        int top = mOriginY + (position / columnCount) * (buttonSize + mVerticalSpacing);
+        outBounds.set(left, top, left + buttonSize, top + buttonSize);
+    }
+
+    private int getKeyAt(float x, float y) {
+        int buttonSize = mCustomizationOptionsBundle.getButtonSize();
+        int relativeX = (int) x - mOriginX;
+        int relativeY = (int) y - mOriginY;
+        if (relativeX < 0 || relativeY < 0) {
+            return NO_POSITION;
+        }
+
+        int column = relativeX / (buttonSize + mHorizontalSpacing);
+        int row = relativeY / (buttonSize + mVerticalSpacing);
+        int columnCount = mShownKeyLayout.getColumnCount();
+        if (column >= columnCount || row >= mShownKeyLayout.getRowCount()
+                || relativeX - column * (buttonSize + mHorizontalSpacing) >= buttonSize
+                || relativeY - row * (buttonSize + mVerticalSpacing) >= buttonSize) {
+            return NO_POSITION;
+        }
+
+        int position = row * columnCount + column;
+        return isKeyVisible(position) ? position : NO_POSITION;
+    }
+
+    /**
+     * Sets a {@link PinLockListener} to the to listen to pin update events.
+     * Replaces any {@link PinSequenceListener} set before
+     *
+     * @param pinLockListener the listener
+     */
+    public void setPinLockListener(PinLockListener pinLockListener) {
+        mInputController.setPinLockListener(pinLockListener);
+    }
+
+    /**
+     * Sets a {@link PinSequenceListener} to listen to pin update events without
+     * allocating a {@link String} per key press. Replaces any {@link PinLockListener} set before
+     *
+     * @param pinSequenceListener the listener
+     */
+    public void setPinSequenceListener(PinSequenceListener pinSequenceListener) {
+        mInputController.setPinSequenceListener(pinSequenceListener);
+    }
+
+    /**
+     * Sets how the pin change and empty callbacks reach the listener. With {@link ListenerDelivery#NEXT_FRAME}
+     * they are deferred to the next frame, all the key presses of a frame producing a single callback with the
+     * latest state, which keeps a slow listener out of the input latency. The default is
+     * {@link ListenerDelivery#IMMEDIATE}.
+     *
+     * @param listenerDelivery the delivery mode
+     */
+    public void setListenerDelivery(@ListenerDelivery int listenerDelivery) {
+        mInputController.setListenerDelivery(listenerDelivery);
+    }
+
+    @ListenerDelivery
+    public int getListenerDelivery() {
+        return mInputController.getListenerDelivery();
+    }
+
+    /**
+     * Gets the stream of the keypad events, for any number of subscribers each called on its own executor.
+     * Events are published as they happen, whatever the {@link ListenerDelivery}, and never carry the digits.
+     *
+     * @return the event stream of this view
+     */
+    @NonNull
+    public PinEventStream getPinEvents() {
+        return mInputController.getEventStream();
+    }
+
+    /**
+     * Starts measuring the latency of the keypad, see {@link PinLockMetrics}. Measuring is off by default.
+     *
+     * @param metrics the metrics to record into, null to stop measuring
+     */
+    public void setMetrics(@Nullable PinLockMetrics metrics) {
+        mInputController.setMetrics(metrics);
+    }
+
+    @Nullable
+    public PinLockMetrics getMetrics() {
+        return mInputController.getMetrics();
+    }
+
+    /**
+     * Verifies the complete pin with a {@link PinVerifier} running on the given executor, instead of
+     * the result of the listener's onComplete. Input is ignored while the verification is pending.
+     *
+     * @param pinVerifier the verifier, null to go back to the listener's result
+     * @param executor    the executor running the verifier, required if the verifier is not null
+     */
+    public void setPinVerifier(@Nullable PinVerifier pinVerifier, @Nullable Executor executor) {
+        mInputController.setPinVerifier(pinVerifier, executor);
+    }
+
+    /**
+     * Sets a {@link PinVerificationListener} to listen to the progress of the {@link PinVerifier}
+     *
+     * @param verificationListener the listener
+     */
+    public void setPinVerificationListener(PinVerificationListener verificationListener) {
+        mInputController.setPinVerificationListener(verificationListener);
+    }
+
+    /**
+     * Whether a complete pin is being verified, in which case the keypad ignores any input
+     *
+     * @return true if a verification is pending
+     */
+    public boolean isVerifying() {
+        return mInputController.isVerifying();
+    }
+
+    /**
+     * Limits the failed attempts with an {@link AttemptLimiter}. Every pin verified by the listener or the
+     * {@link PinVerifier} is recorded, and the keypad ignores input while the limiter locks attempts out.
+     *
+     * @param attemptLimiter the limiter, null to stop limiting the attempts
+     */
+    public void setAttemptLimiter(@Nullable AttemptLimiter attemptLimiter) {
+        mInputController.setAttemptLimiter(attemptLimiter);
+    }
+
+    /**
+     * Sets an {@link AttemptLimitListener} to listen to the lockouts of the {@link AttemptLimiter}
+     *
+     * @param attemptLimitListener the listener
+     */
+    public void setAttemptLimitListener(AttemptLimitListener attemptLimitListener) {
+        mInputController.setAttemptLimitListener(attemptLimitListener);
+    }
+
+    /**
+     * Whether the keypad ignores input because of the {@link AttemptLimiter}, after too many failed attempts
+     *
+     * @return true if the keypad is locked out
+     */
+    public boolean isLockedOut() {
+        return mInputController.isLockedOut();
+    }
+
+    /**
+     * Get the length of the pin
+     *
+     * @return the pin length
+     */
+    public int getPinLength() {
+        return mInputController.getPinLength();
+    }
+
+    /**
+     * Sets the pin length dynamically
+     *
+     * @param pinLength the pin length
+     */
+    public void setPinLength(int pinLength) {
+        mInputController.setPinLength(pinLength);
+    }
+
+    /**
+     * Enables vibration dynamically.
+     */
+    public void enableVibration() {
+        mInputController.setVibrate(true);
+    }
+
+    /**
+     * Disables vibration dynamically.
+     */
+    public void disableVibration() {
+        mInputController.setVibrate(false);
+    }
+
+    /**
+     * Sets whether the digits typed so far survive a configuration change, such as a rotation. They are then
+     * saved in plain text with the state of the view, which the system may write to disk, so this is off by default
+     * and the keypad starts over empty. The order of the keys is always kept.
+     *
+     * @param savePinEnabled true to save the digits
+     */
+    public void setSavePinEnabled(boolean savePinEnabled) {
+        mInputController.setSavePinEnabled(savePinEnabled);
+    }
+
+    public boolean isSavePinEnabled() {
+        return mInputController.isSavePinEnabled();
+    }
+
+    /**
+     * Replaces the vibration played for an event, for example a distinct pattern on success.
+     * Only applicable from API 26, when the app holds the {@code VIBRATE} permission. Otherwise the
+     * view's haptic feedback is used.
+     *
+     * @param event  the event
+     * @param effect the effect, or null for the default one
+     */
+    @RequiresApi(Build.VERSION_CODES.O)
+    public void setHapticEffect(@HapticEvent int event, @Nullable VibrationEffect effect) {
+        mInputController.setHapticEffect(event, effect);
+    }
+
+    /**
+     * Get the customization options used to draw the keys
+     *
+     * @return the customization options
+     */
+    public CustomizationOptionsBundle getCustomizationOptions() {
+        return mCustomizationOptionsBundle;
+    }
+
+    /**
+     * Set the customization options used to draw the keys. Call it again after
+     * changing the returned bundle of {@link #getCustomizationOptions()} to apply the changes
+     *
+     * @param customizationOptionsBundle the customization options
+     */
+    public void setCustomizationOptions(CustomizationOptionsBundle customizationOptionsBundle) {
+        this.mCustomizationOptionsBundle = customizationOptionsBundle;
+        applyCustomizationOptions();
+        updateOrigin();
+        requestLayout();
+        invalidate();
+    }
+
+    public int[] getCustomKeySet() {
+        return mCustomKeySet;
+    }
+
+    /**
+     * Sets the values of the digit keys, in the order they are shown
+     *
+     * @param customKeySet the values, as many as the digit keys of the {@link KeyLayout}
+     */
+    public void setCustomKeySet(int[] customKeySet) {
+        this.mCustomKeySet = customKeySet;
+        showKeyLayout(mShownKeyLayout.withKeyValues(customKeySet));
+    }
+
+    /**
+     * Sets the layout of the keys, e.g. a hexadecimal keypad or one with function keys,
+     * the standard 3x4 keypad being {@link KeyLayout#DEFAULT}
+     *
+     * @param keyLayout the layout
+     */
+    public void setKeyLayout(@NonNull KeyLayout keyLayout) {
+        this.mKeyLayout = keyLayout;
+        this.mCustomKeySet = null;
+        mInputController.setHasDeleteKey(keyLayout.hasDeleteKey());
+        showKeyLayout(keyLayout);
+    }
+
+    /**
+     * Gets the layout of the keys as currently shown, shuffled or not
+     *
+     * @return the layout
+     */
+    @NonNull
+    public KeyLayout getKeyLayout() {
+        return mShownKeyLayout;
+    }
+
+    /**
+     * Sets the listener of the function keys of the {@link KeyLayout}
+     *
+     * @param functionKeyListener the listener
+     */
+    public void setFunctionKeyListener(@Nullable FunctionKeyListener functionKeyListener) {
+        mInputController.setFunctionKeyListener(functionKeyListener);
+    }
+
+    /**
+     * Shows the digit keys in a new random order. The standard keys are taken from layouts shuffled ahead of time
+     * with a {@link java.security.SecureRandom} on a background thread, cheap enough to be called after every attempt.
+     */
+    public void enableLayoutShuffling() {
+        this.mCustomKeySet = DefaultLayoutShuffler.shuffle(mKeyLayout.getKeyValues());
+        showKeyLayout(mKeyLayout.withKeyValues(mCustomKeySet));
+    }
+
+    /**
+     * Puts the keys back in the order of the {@link KeyLayout}
+     */
+    public void disableLayoutShuffling() {
+        showKeyLayout(mKeyLayout);
+    }
+
+    private void showKeyLayout(KeyLayout keyLayout) {
+        boolean resized = keyLayout.getColumnCount() != mShownKeyLayout.getColumnCount()
+                || keyLayout.getRowCount() != mShownKeyLayout.getRowCount();
+        mShownKeyLayout = keyLayout;
+        setPressedPosition(NO_POSITION);
+        if (resized) {
+            requestLayout();
+        }
+        mAccessibilityHelper.invalidateRoot();
+        invalidate();
+    }
+
+    /**
+     * Resets the {@link PinKeypadView}, clearing the entered pin
+     * and resetting the {@link IndicatorDots} if attached
+     */
+    public void resetPinLockView() {
+        mInputController.reset();
+    }
+
+    /**
+     * Shows the error feedback on the {@link PinKeypadView} and the {@link IndicatorDots} if attached,
+     * clearing the entered pin when it ends. Any new input ends the feedback early.
+     */
+    public void errorPinLockView() {
+        mInputController.error();
+    }
+
+    /**
+     * Sets the effects played on a wrong pin, a shake of the keypad and the {@link IndicatorDots} by default.
+     * See {@link FeedbackEffects} for the built in effects.
+     *
+     * @param effects the effects, played together
+     */
+    public void setErrorFeedbackEffects(FeedbackEffect... effects) {
+        mInputController.setErrorFeedbackEffects(effects);
+    }
+
+    /**
+     * Enters a sequence of digits at once, for autofill, paste, accessibility actions or tests. The digits are
+     * appended to the pin as if they were typed, with a single update of the {@link IndicatorDots} and a single
+     * call to the listener's onPinChange or onComplete, and no haptics per digit.
+     *
+     * @param digits the digits to enter, '0' to '9' then 'A' to 'Z' in either case for the keys above 9
+     * @return true if the digits were entered, false if the keypad is locked, or the sequence holds
+     * a digit without a key in the {@link KeyLayout} or is longer than the rest of the pin, in which case
+     * nothing is entered
+     */
+    public boolean enterDigits(@NonNull CharSequence digits) {
+        return mKeyLayout.hasDigits(digits) && mInputController.enterDigits(digits);
+    }
+
+    /**
+     * Returns the number of digits entered so far, without exposing the pin itself
+     *
+     * @return the current pin length
+     */
+    public int getPinDigitCount() {
+        return mInputController.getPinDigitCount();
+    }
+
+    /**
+     * Returns true if {@link IndicatorDots} are attached to {@link PinKeypadView}
+     *
+     * @return true if attached, false otherwise
+     */
+    public boolean isIndicatorDotsAttached() {
+        return mInputController.isIndicatorDotsAttached();
+    }
+
+    /**
+     * Attaches {@link IndicatorDots} to {@link PinKeypadView}
+     *
+     * @param indicatorDots the view to attach
+     */
+    public void attachIndicatorDots(IndicatorDots indicatorDots) {
+        mInputController.attachIndicatorDots(indicatorDots);
+    }
+
+    /**
+     * Exposes every drawn key as a virtual view, so that the keypad stays usable with accessibility services
+     */
+    private final class KeypadAccessibilityHelper extends ExploreByTouchHelper {
+
+        KeypadAccessibilityHelper(View host) {
+            super(host);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int position = getKeyAt(x, y);
+            return position == NO_POSITION ? INVALID_ID : position;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            for (int position = 0; position < mShownKeyLayout.getCellCount(); position++) {
+                if (isKeyVisible(position)) {
+                    virtualViewIds.add(position);
+                }
+            }
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        protected void onPopulateNodeForVirtualView(int virtualViewId, @NonNull AccessibilityNodeInfoCompat node) {
+            if (mShownKeyLayout.getType(virtualViewId) == KeyLayout.KeyType.DELETE) {
+                node.setContentDescription(getContext().getString(R.string.plv_delete_button_description));
+            } else {
+                node.setContentDescription(mShownKeyLayout.getLabel(virtualViewId));
+            }
+            getKeyBounds(virtualViewId, mKeyBounds);
+            node.setBoundsInParent(mKeyBounds);
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments) {
+            if (action == AccessibilityNodeInfoCompat.ACTION_CLICK) {
+                onKeyClicked(virtualViewId);
+                return true;
+            }
+            return false;
+        }
+    }
+}
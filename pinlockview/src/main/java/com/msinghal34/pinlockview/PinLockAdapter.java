@@ -1,9 +1,7 @@
 package com.msinghal34.pinlockview;
 
 import android.content.Context;
-import android.content.res.ColorStateList;
 import android.graphics.PorterDuff;
-import android.graphics.PorterDuffColorFilter;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.LayerDrawable;
 import android.util.Log;
@@ -15,41 +13,134 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.content.res.AppCompatResources;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.Arrays;
+import com.msinghal34.pinlockview.core.KeyLayout;
+
+import java.util.List;
+import java.util.Objects;
 
 public class PinLockAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
 
-    private static final int VIEW_TYPE_NUMBER = 0;
-    private static final int VIEW_TYPE_DELETE = 1;
+    static final int VIEW_TYPE_NUMBER = 0;
+    static final int VIEW_TYPE_DELETE = 1;
+    private static final int NO_KEY = Integer.MIN_VALUE;
+
+    /**
+     * Change payloads, dispatched through {@link #notifyCustomizationChanged(int)} so that
+     * a bind only reapplies the properties which really changed
+     */
+    static final int CHANGE_COLOR = 1;
+    static final int CHANGE_TEXT_SIZE = 1 << 1;
+    static final int CHANGE_BUTTON_SIZE = 1 << 2;
+    static final int CHANGE_DELETE_ICON = 1 << 3;
+    static final int CHANGE_PRESS_ANIMATION = 1 << 4;
+    private static final int NUMBER_CHANGES = CHANGE_COLOR | CHANGE_TEXT_SIZE | CHANGE_BUTTON_SIZE | CHANGE_PRESS_ANIMATION;
+    private static final int DELETE_CHANGES = CHANGE_COLOR | CHANGE_DELETE_ICON;
 
     private final Context mContext;
+    private final int mSelectableBackgroundResId;
+    private Context mInflationContext;
     private CustomizationOptionsBundle mCustomizationOptionsBundle;
+    private ResolvedKeyStyle mResolvedStyle;
     private OnNumberClickListener mOnNumberClickListener;
     private OnDeleteClickListener mOnDeleteClickListener;
+    private OnFunctionClickListener mOnFunctionClickListener;
+    private PinLockMetrics mMetrics;
+    private RecyclerView mRecyclerView;
+
+    private KeyLayout mKeyLayout = KeyLayout.DEFAULT;
+
+    private final View.OnClickListener mNumberClickListener = v -> {
+        NumberViewHolder holder = (NumberViewHolder) v.getTag();
+        if (holder.mKeyType == KeyLayout.KeyType.FUNCTION) {
+            if (mOnFunctionClickListener != null) {
+                mOnFunctionClickListener.onFunctionClicked(holder.mKeyValue);
+            }
+        } else if (mOnNumberClickListener != null) {
+            mOnNumberClickListener.onNumberClicked(holder.mKeyValue);
+        }
+    };
 
-    private int[] mKeyValues;
+    private final View.OnClickListener mDeleteClickListener = v -> {
+        if (mOnDeleteClickListener != null) {
+            mOnDeleteClickListener.onDeleteClicked();
+        }
+    };
 
     public PinLockAdapter(Context context) {
         this.mContext = context;
-        this.mKeyValues = getAdjustKeyValues(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 0});
+        setHasStableIds(true);
+        this.mSelectableBackgroundResId = resolveSelectableBackground(context);
+    }
+
+    private static int resolveSelectableBackground(Context context) {
+        try {
+            TypedValue outValue = new TypedValue();
+            context.getTheme().resolveAttribute(android.R.attr.selectableItemBackgroundBorderless, outValue, true);
+            return outValue.resourceId;
+        } catch (Exception e) {
+            Log.e("PinLockView", "Exception while setting press feedback", e);
+            return 0;
+        }
     }
 
     @Override
     public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
-        RecyclerView.ViewHolder viewHolder;
-        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        PinLockDebug.beginSection("PinLockAdapter.onCreateViewHolder");
+        try {
+            LayoutInflater inflater = LayoutInflater.from(mInflationContext != null ? mInflationContext : parent.getContext());
+            return newViewHolder(inflater.inflate(getLayoutId(viewType), parent, false), viewType);
+        } finally {
+            PinLockDebug.endSection();
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        // The holder may go to the shared pool, where it must not keep this adapter's listeners alive
+        clearClickListener(holder);
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        this.mRecyclerView = recyclerView;
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(@NonNull RecyclerView recyclerView) {
+        this.mRecyclerView = null;
+        for (int i = 0; i < recyclerView.getChildCount(); i++) {
+            RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+            if (holder != null) {
+                clearClickListener(holder);
+            }
+        }
+    }
 
+    private static void clearClickListener(RecyclerView.ViewHolder holder) {
+        if (holder instanceof NumberViewHolder) {
+            NumberViewHolder numberHolder = (NumberViewHolder) holder;
+            numberHolder.mNumberText.setOnClickListener(null);
+            numberHolder.mClickListener = null;
+        } else if (holder instanceof DeleteViewHolder) {
+            DeleteViewHolder deleteHolder = (DeleteViewHolder) holder;
+            deleteHolder.mDeleteImage.setOnClickListener(null);
+            deleteHolder.mClickListener = null;
+        }
+    }
+
+    static int getLayoutId(int viewType) {
+        return viewType == VIEW_TYPE_NUMBER ? R.layout.layout_number_item : R.layout.layout_delete_item;
+    }
+
+    static RecyclerView.ViewHolder newViewHolder(View view, int viewType) {
         if (viewType == VIEW_TYPE_NUMBER) {
-            View view = inflater.inflate(R.layout.layout_number_item, parent, false);
-            viewHolder = new NumberViewHolder(view);
-        } else {
-            View view = inflater.inflate(R.layout.layout_delete_item, parent, false);
-            viewHolder = new DeleteViewHolder(view);
+            return new NumberViewHolder(view);
         }
-        return viewHolder;
+        return new DeleteViewHolder(view);
     }
 
     @Override
@@ -63,125 +154,308 @@ public class PinLockAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         }
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        // Every bind goes through this overload, the full one included
+        if (mMetrics != null) {
+            mMetrics.onBind();
+        }
+        PinLockDebug.beginSection("PinLockAdapter.onBindViewHolder");
+        try {
+            bindViewHolder(holder, position, payloads);
+        } finally {
+            PinLockDebug.endSection();
+        }
+    }
+
+    private void bindViewHolder(RecyclerView.ViewHolder holder, int position, List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        int changes = 0;
+        for (int i = 0; i < payloads.size(); i++) {
+            Object payload = payloads.get(i);
+            if (payload instanceof Integer) {
+                changes |= (Integer) payload;
+            }
+        }
+
+        if (holder.getItemViewType() == VIEW_TYPE_NUMBER) {
+            applyNumberChanges((NumberViewHolder) holder, changes);
+        } else if (holder.getItemViewType() == VIEW_TYPE_DELETE && (changes & DELETE_CHANGES) != 0) {
+            configureDeleteButtonHolder((DeleteViewHolder) holder);
+        }
+    }
+
+    private void applyNumberChanges(NumberViewHolder holder, int changes) {
+        ResolvedKeyStyle style = getResolvedStyle();
+        if (style == null || holder.mAppliedStyle == style) {
+            return;
+        }
+
+        if ((changes & CHANGE_COLOR) != 0) {
+            holder.mNumberText.setTextColor(style.textColor);
+            holder.mNumberButton.setBackgroundTintList(style.buttonBackgroundTint);
+        }
+        if ((changes & CHANGE_TEXT_SIZE) != 0) {
+            holder.mNumberText.setTextSize(TypedValue.COMPLEX_UNIT_PX, style.textSize);
+        }
+        if ((changes & CHANGE_BUTTON_SIZE) != 0) {
+            setSize(holder.mNumberButton, style.buttonSize);
+        }
+        if ((changes & CHANGE_PRESS_ANIMATION) != 0) {
+            applyPressBackground(holder, style);
+        }
+        holder.mAppliedStyle = style;
+    }
+
     private void configureNumberButtonHolder(NumberViewHolder holder, int position) {
         if (holder != null) {
-            if (position == 9) {
+            // Holders may come from the shared pool, created by another adapter
+            if (holder.mClickListener != mNumberClickListener) {
+                holder.mNumberText.setOnClickListener(mNumberClickListener);
+                holder.mClickListener = mNumberClickListener;
+            }
+
+            int keyType = mKeyLayout.getType(position);
+            if (keyType == KeyLayout.KeyType.EMPTY) {
                 holder.mNumberButton.setVisibility(View.GONE);
             } else {
                 holder.mNumberButton.setVisibility(View.VISIBLE);
-                holder.mNumberText.setText(String.valueOf(mKeyValues[position]));
-                holder.mNumberText.setTag(mKeyValues[position]);
-            }
-
-            if (mCustomizationOptionsBundle != null) {
-                holder.mNumberText.setTextColor(mCustomizationOptionsBundle.getTextColor());
-                holder.mNumberText.setTextSize(TypedValue.COMPLEX_UNIT_PX, mCustomizationOptionsBundle.getTextSize());
-
-                if (mCustomizationOptionsBundle.showButtonPressAnimation()) {
-                    try {
-                        TypedValue outValue = new TypedValue();
-                        mContext.getTheme().resolveAttribute(android.R.attr.selectableItemBackgroundBorderless, outValue, true);
-                        holder.mNumberText.setBackgroundResource(outValue.resourceId);
-                    } catch (Exception e) {
-                        Log.e("PinLockView", "Exception while setting press feedback", e);
-                    }
-                } else {
-                    holder.mNumberText.setBackground(null);
+                holder.mKeyType = keyType;
+                holder.mKeyValue = mKeyLayout.getValue(position);
+                // The labels of the digits are shared instances, an unchanged key is not set again
+                String label = mKeyLayout.getLabel(position);
+                if (holder.mLabel != label) {
+                    holder.mNumberText.setText(label);
+                    holder.mLabel = label;
                 }
+            }
 
-                LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                        mCustomizationOptionsBundle.getButtonSize(),
-                        mCustomizationOptionsBundle.getButtonSize());
-                holder.mNumberButton.setLayoutParams(params);
-                holder.mNumberButton.setBackgroundTintList(ColorStateList.valueOf(mCustomizationOptionsBundle.getButtonBackgroundColor()));
+            ResolvedKeyStyle style = getResolvedStyle();
+            if (style != null && holder.mAppliedStyle != style) {
+                applyNumberStyle(holder, style);
+                holder.mAppliedStyle = style;
             }
+        }
+    }
 
-            holder.mNumberText.setOnClickListener(v -> {
-                if (mOnNumberClickListener != null) {
-                    mOnNumberClickListener.onNumberClicked((Integer) v.getTag());
-                }
-            });
+    private void applyNumberStyle(NumberViewHolder holder, ResolvedKeyStyle style) {
+        holder.mNumberText.setTextColor(style.textColor);
+        holder.mNumberText.setTextSize(TypedValue.COMPLEX_UNIT_PX, style.textSize);
+
+        applyPressBackground(holder, style);
+        setSize(holder.mNumberButton, style.buttonSize);
+        holder.mNumberButton.setBackgroundTintList(style.buttonBackgroundTint);
+    }
+
+    private static void applyPressBackground(NumberViewHolder holder, ResolvedKeyStyle style) {
+        if (style.pressBackgroundResId != 0) {
+            holder.mNumberText.setBackgroundResource(style.pressBackgroundResId);
+        } else {
+            holder.mNumberText.setBackground(null);
         }
     }
 
     private void configureDeleteButtonHolder(DeleteViewHolder holder) {
-        if (mCustomizationOptionsBundle.showDeleteButton()) {
+        if (holder.mClickListener != mDeleteClickListener) {
+            holder.mDeleteImage.setOnClickListener(mDeleteClickListener);
+            holder.mClickListener = mDeleteClickListener;
+        }
+
+        ResolvedKeyStyle style = getResolvedStyle();
+        if (style.showDeleteButton) {
             holder.mDeleteImage.setVisibility(View.VISIBLE);
-            if (mCustomizationOptionsBundle.getDeleteButtonDrawable() == R.drawable.ic_delete) {
-                try {
-                    LayerDrawable layeredDrawable = (LayerDrawable) AppCompatResources.getDrawable(mContext, R.drawable.ic_delete);
-                    if (layeredDrawable != null) {
-                        Drawable foreground = layeredDrawable.findDrawableByLayerId(R.id.foreground);
-                        Drawable background = layeredDrawable.findDrawableByLayerId(R.id.background);
-
-                        if (foreground != null) {
-                            foreground.setColorFilter(new PorterDuffColorFilter(
-                                    mCustomizationOptionsBundle.getTextColor(),
-                                    PorterDuff.Mode.SRC_IN
-                            ));
-                        }
-
-                        if (background != null) {
-                            background.setColorFilter(new PorterDuffColorFilter(
-                                    mCustomizationOptionsBundle.getButtonBackgroundColor(),
-                                    PorterDuff.Mode.SRC_IN
-                            ));
-                        }
-
-                        holder.mDeleteImage.setImageDrawable(layeredDrawable);
+            if (holder.mAppliedStyle != style) {
+                applyDeleteStyle(holder, style);
+                holder.mAppliedStyle = style;
+            }
+        } else {
+            holder.mDeleteImage.setVisibility(View.GONE);
+        }
+    }
+
+    private void applyDeleteStyle(DeleteViewHolder holder, ResolvedKeyStyle style) {
+        if (style.deleteButtonDrawableId == R.drawable.ic_delete) {
+            try {
+                LayerDrawable layeredDrawable = (LayerDrawable) AppCompatResources.getDrawable(mContext, R.drawable.ic_delete);
+                if (layeredDrawable != null) {
+                    Drawable foreground = layeredDrawable.findDrawableByLayerId(R.id.foreground);
+                    Drawable background = layeredDrawable.findDrawableByLayerId(R.id.background);
+
+                    if (foreground != null) {
+                        foreground.setColorFilter(style.deleteForegroundFilter);
+                    }
+
+                    if (background != null) {
+                        background.setColorFilter(style.deleteBackgroundFilter);
                     }
-                } catch (Exception e) {
-                    Log.e("PinLockView", "Something went wrong while handling layer drawable");
-                    holder.mDeleteImage.setImageResource(R.drawable.ic_delete);
-                    holder.mDeleteImage.setColorFilter(mCustomizationOptionsBundle.getTextColor(), PorterDuff.Mode.SRC_ATOP);
+
+                    holder.mDeleteImage.setImageDrawable(layeredDrawable);
                 }
-            } else {
-                holder.mDeleteImage.setImageResource(mCustomizationOptionsBundle.getDeleteButtonDrawable());
+            } catch (Exception e) {
+                Log.e("PinLockView", "Something went wrong while handling layer drawable");
+                holder.mDeleteImage.setImageResource(R.drawable.ic_delete);
+                holder.mDeleteImage.setColorFilter(style.textColor.getDefaultColor(), PorterDuff.Mode.SRC_ATOP);
             }
-            LinearLayout.LayoutParams imageParams = new LinearLayout.LayoutParams(
-                    mCustomizationOptionsBundle.getDeleteButtonSize(),
-                    mCustomizationOptionsBundle.getDeleteButtonSize());
-            holder.mDeleteImage.setLayoutParams(imageParams);
-
-            holder.mDeleteImage.setOnClickListener(v -> {
-                if (mOnDeleteClickListener != null) {
-                    mOnDeleteClickListener.onDeleteClicked();
-                }
-            });
         } else {
-            holder.mDeleteImage.setVisibility(View.GONE);
+            holder.mDeleteImage.setImageResource(style.deleteButtonDrawableId);
+        }
+        setSize(holder.mDeleteImage, style.deleteButtonSize);
+    }
+
+    /**
+     * Updates the existing layout params in place, only requesting a layout when the size really changed
+     */
+    private static void setSize(View view, int size) {
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (params == null) {
+            view.setLayoutParams(new LinearLayout.LayoutParams(size, size));
+        } else if (params.width != size || params.height != size) {
+            params.width = size;
+            params.height = size;
+            view.setLayoutParams(params);
         }
     }
 
+    private ResolvedKeyStyle getResolvedStyle() {
+        if (mCustomizationOptionsBundle == null) {
+            return null;
+        }
+        if (mResolvedStyle == null || mResolvedStyle.isStale(mCustomizationOptionsBundle)) {
+            mResolvedStyle = new ResolvedKeyStyle(mCustomizationOptionsBundle, mSelectableBackgroundResId);
+        }
+        return mResolvedStyle;
+    }
+
     @Override
     public int getItemCount() {
-        return 12;
+        return mKeyLayout.getCellCount();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mKeyLayout.getKeyId(position);
     }
 
     @Override
     public int getItemViewType(int position) {
-        if (position == getItemCount() - 1) {
+        if (mKeyLayout.getType(position) == KeyLayout.KeyType.DELETE) {
             return VIEW_TYPE_DELETE;
         }
         return VIEW_TYPE_NUMBER;
     }
 
+    /**
+     * Rebinds only the properties described by {@code changes} on the affected keys
+     *
+     * @param changes a combination of the {@code CHANGE_*} flags
+     */
+    void notifyCustomizationChanged(int changes) {
+        Integer payload = changes;
+        boolean numberChanges = (changes & NUMBER_CHANGES) != 0;
+        boolean deleteChanges = (changes & DELETE_CHANGES) != 0;
+        for (int position = 0; position < mKeyLayout.getCellCount(); position++) {
+            if (getItemViewType(position) == VIEW_TYPE_DELETE ? deleteChanges : numberChanges) {
+                notifyItemChanged(position, payload);
+            }
+        }
+    }
+
+    /**
+     * Sets the values of the digit keys, moving the keys which changed position instead of rebinding the whole keypad
+     *
+     * @param keyValues the key values, in the order they are shown
+     */
     public void setKeyValues(int[] keyValues) {
-        this.mKeyValues = getAdjustKeyValues(keyValues);
+        setKeyLayout(mKeyLayout.withKeyValues(keyValues));
+    }
+
+    /**
+     * Sets the layout of the keys. A layout with the same grid is applied with a move per displaced key,
+     * any other one rebinds the whole keypad
+     *
+     * @param keyLayout the layout
+     */
+    void setKeyLayout(KeyLayout keyLayout) {
+        KeyLayout previousLayout = mKeyLayout;
+        this.mKeyLayout = keyLayout;
+        if (previousLayout.getColumnCount() != keyLayout.getColumnCount()
+                || previousLayout.getCellCount() != keyLayout.getCellCount()) {
+            notifyDataSetChanged();
+        } else if (dispatchMoves(previousLayout, keyLayout) && mRecyclerView != null) {
+            // The spacing of a key depends on its position, which a move doesn't mark as changed
+            mRecyclerView.invalidateItemDecorations();
+        }
+    }
+
+    /**
+     * Replaces the layout of the keys without any move, the keys shown being bound again in place
+     *
+     * @param keyLayout the layout
+     */
+    void replaceKeyLayout(KeyLayout keyLayout) {
+        this.mKeyLayout = keyLayout;
         notifyDataSetChanged();
     }
 
-    private int[] getAdjustKeyValues(int[] keyValues) {
-        int[] adjustedKeyValues = new int[keyValues.length + 1];
-        for (int i = 0; i < keyValues.length; i++) {
-            if (i < 9) {
-                adjustedKeyValues[i] = keyValues[i];
-            } else {
-                adjustedKeyValues[i] = -1;
-                adjustedKeyValues[i + 1] = keyValues[i];
+    KeyLayout getKeyLayout() {
+        return mKeyLayout;
+    }
+
+    /**
+     * Turns the previous order of the cells into the new one with a move per displaced key. A key missing
+     * from the previous order, or relabelled, is bound again in place
+     *
+     * @return true if any key moved
+     */
+    private boolean dispatchMoves(KeyLayout previousLayout, KeyLayout keyLayout) {
+        int cellCount = keyLayout.getCellCount();
+        long[] currentIds = new long[cellCount];
+        String[] currentLabels = new String[cellCount];
+        for (int position = 0; position < cellCount; position++) {
+            currentIds[position] = previousLayout.getKeyId(position);
+            currentLabels[position] = previousLayout.getLabel(position);
+        }
+
+        boolean moved = false;
+        for (int position = 0; position < cellCount; position++) {
+            long itemId = keyLayout.getKeyId(position);
+            String label = keyLayout.getLabel(position);
+            if (currentIds[position] != itemId) {
+                int from = indexOf(currentIds, itemId, position + 1);
+                if (from < 0) {
+                    currentIds[position] = itemId;
+                    currentLabels[position] = label;
+                    notifyItemChanged(position);
+                    continue;
+                }
+
+                String movedLabel = currentLabels[from];
+                System.arraycopy(currentIds, position, currentIds, position + 1, from - position);
+                System.arraycopy(currentLabels, position, currentLabels, position + 1, from - position);
+                currentIds[position] = itemId;
+                currentLabels[position] = movedLabel;
+                notifyItemMoved(from, position);
+                moved = true;
+            }
+            if (!Objects.equals(currentLabels[position], label)) {
+                currentLabels[position] = label;
+                notifyItemChanged(position);
             }
         }
-        return adjustedKeyValues;
+        return moved;
+    }
+
+    private static int indexOf(long[] ids, long id, int fromIndex) {
+        for (int i = fromIndex; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     public void setOnItemClickListener(OnNumberClickListener onNumberClickListener) {
@@ -192,8 +466,26 @@ public class PinLockAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         this.mOnDeleteClickListener = onDeleteClickListener;
     }
 
+    public void setOnFunctionClickListener(OnFunctionClickListener onFunctionClickListener) {
+        this.mOnFunctionClickListener = onFunctionClickListener;
+    }
+
     public void setCustomizationOptions(CustomizationOptionsBundle customizationOptionsBundle) {
         this.mCustomizationOptionsBundle = customizationOptionsBundle;
+        this.mResolvedStyle = null;
+    }
+
+    /**
+     * Sets the context used to inflate the keys, instead of the one of the parent {@link RecyclerView}
+     *
+     * @param inflationContext the context, or null to use the parent's context
+     */
+    void setInflationContext(Context inflationContext) {
+        this.mInflationContext = inflationContext;
+    }
+
+    void setMetrics(PinLockMetrics metrics) {
+        this.mMetrics = metrics;
     }
 
     public interface OnNumberClickListener {
@@ -204,19 +496,31 @@ public class PinLockAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder
         void onDeleteClicked();
     }
 
-    public class NumberViewHolder extends RecyclerView.ViewHolder {
+    public interface OnFunctionClickListener {
+        void onFunctionClicked(int functionId);
+    }
+
+    public static class NumberViewHolder extends RecyclerView.ViewHolder {
         LinearLayout mNumberButton;
         TextView mNumberText;
+        int mKeyType;
+        int mKeyValue = NO_KEY;
+        String mLabel;
+        ResolvedKeyStyle mAppliedStyle;
+        View.OnClickListener mClickListener;
 
         public NumberViewHolder(final View itemView) {
             super(itemView);
             mNumberButton = itemView.findViewById(R.id.button);
             mNumberText = itemView.findViewById(R.id.number);
+            mNumberText.setTag(this);
         }
     }
 
-    public class DeleteViewHolder extends RecyclerView.ViewHolder {
+    public static class DeleteViewHolder extends RecyclerView.ViewHolder {
         ImageView mDeleteImage;
+        ResolvedKeyStyle mAppliedStyle;
+        View.OnClickListener mClickListener;
 
         public DeleteViewHolder(final View itemView) {
             super(itemView);
@@ -0,0 +1,107 @@
+package com.msinghal34.pinlockview;
+
+import android.os.Trace;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process wide debugging switches of the keypad views, all off by default.
+ * <p/>
+ * With tracing enabled, the hot paths of the library show up as named sections in a system trace, e.g.
+ * {@code PinLockAdapter.onBindViewHolder} or {@code PinLockListener.onComplete}, which tells the time spent
+ * in the views from the time spent in the listeners. The watchdog reports any listener callback running
+ * longer than a budget on the main thread. Both are meant to be set up once, before the keypad is used,
+ * e.g. in debug builds only. When off, they cost a field read per call.
+ */
+public final class PinLockDebug {
+
+    private static final String TAG = "PinLockView";
+
+    private static final SlowCallbackListener LOG_SLOW_CALLBACK = (callback, durationNanos) ->
+            Log.w(TAG, callback + " took " + TimeUnit.NANOSECONDS.toMillis(durationNanos) + " ms on the main thread");
+
+    private static volatile boolean sTracingEnabled;
+    private static volatile long sSlowCallbackBudgetNanos;
+    private static volatile SlowCallbackListener sSlowCallbackListener = LOG_SLOW_CALLBACK;
+
+    private PinLockDebug() {
+        throw new AssertionError();
+    }
+
+    public static boolean isTracingEnabled() {
+        return sTracingEnabled;
+    }
+
+    /**
+     * Enables the trace sections around the hot paths of the library
+     *
+     * @param tracingEnabled true to emit the sections
+     */
+    public static void setTracingEnabled(boolean tracingEnabled) {
+        sTracingEnabled = tracingEnabled;
+    }
+
+    /**
+     * Starts the watchdog of the listener callbacks
+     *
+     * @param budgetMillis the longest a callback may run, 0 to stop the watchdog
+     */
+    public static void setSlowCallbackBudget(long budgetMillis) {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException("Invalid budget: " + budgetMillis);
+        }
+        sSlowCallbackBudgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+
+    public static long getSlowCallbackBudget() {
+        return TimeUnit.NANOSECONDS.toMillis(sSlowCallbackBudgetNanos);
+    }
+
+    /**
+     * Sets where the watchdog reports slow callbacks, by default they are logged
+     *
+     * @param slowCallbackListener the listener, null to go back to logging
+     */
+    public static void setSlowCallbackListener(@Nullable SlowCallbackListener slowCallbackListener) {
+        sSlowCallbackListener = slowCallbackListener == null ? LOG_SLOW_CALLBACK : slowCallbackListener;
+    }
+
+    static void beginSection(String sectionName) {
+        if (sTracingEnabled) {
+            Trace.beginSection(sectionName);
+        }
+    }
+
+    static void endSection() {
+        if (sTracingEnabled) {
+            Trace.endSection();
+        }
+    }
+
+    static boolean isWatchdogEnabled() {
+        return sSlowCallbackBudgetNanos > 0;
+    }
+
+    static void checkCallback(String callback, long durationNanos) {
+        long budgetNanos = sSlowCallbackBudgetNanos;
+        if (budgetNanos > 0 && durationNanos > budgetNanos) {
+            sSlowCallbackListener.onSlowCallback(callback, durationNanos);
+        }
+    }
+
+    /**
+     * Receives the listener callbacks running over the budget of the watchdog, on the main thread
+     */
+    public interface SlowCallbackListener {
+
+        /**
+         * @param callback      the name of the callback, e.g. {@code PinLockListener.onComplete}
+         * @param durationNanos the time the callback took
+         */
+        void onSlowCallback(@NonNull String callback, long durationNanos);
+    }
+}
@@ -0,0 +1,123 @@
+package com.msinghal34.pinlockview;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.msinghal34.pinlockview.core.LatencyHistogram;
+
+/**
+ * Opt-in instrumentation of a keypad, attached with {@link PinLockView#setMetrics(PinLockMetrics)}
+ * or {@link PinKeypadView#setMetrics(PinLockMetrics)}.
+ * <p/>
+ * It measures the latency of every key press, from the touch being released to the {@link IndicatorDots}
+ * drawing the frame which shows the new length, so it needs the dots to be attached. The frame is timed when
+ * it is drawn on the main thread, the pixels reach the screen a frame or two later. It also measures the time
+ * spent in the listener callbacks, and counts the key binds of {@link PinLockView}.
+ * <p/>
+ * Recording allocates nothing. The histograms can be read from any thread, every sample is also handed
+ * to the {@link Sink}, on the main thread, to export them elsewhere.
+ */
+public final class PinLockMetrics {
+
+    // Key presses waiting for the dots to be drawn, more in a single frame are not measured
+    private static final int MAX_PENDING_KEYS = 8;
+
+    private final LatencyHistogram mKeyLatency = new LatencyHistogram();
+    private final LatencyHistogram mListenerLatency = new LatencyHistogram();
+    private final long[] mPendingKeys = new long[MAX_PENDING_KEYS];
+    private final Sink mSink;
+    private int mPendingKeyCount;
+    private volatile int mBindCount;
+
+    public PinLockMetrics() {
+        this(null);
+    }
+
+    /**
+     * @param sink the sink receiving every sample, null to only aggregate them
+     */
+    public PinLockMetrics(@Nullable Sink sink) {
+        this.mSink = sink;
+    }
+
+    /**
+     * The latencies from a key press to the frame drawing its indicator update
+     */
+    @NonNull
+    public LatencyHistogram getKeyLatency() {
+        return mKeyLatency;
+    }
+
+    /**
+     * The time spent in each callback of the listener
+     */
+    @NonNull
+    public LatencyHistogram getListenerLatency() {
+        return mListenerLatency;
+    }
+
+    /**
+     * The number of keys bound by the adapter of {@link PinLockView}, 0 for {@link PinKeypadView}
+     */
+    public int getBindCount() {
+        return mBindCount;
+    }
+
+    /**
+     * Clears everything measured so far
+     */
+    public void reset() {
+        mKeyLatency.reset();
+        mListenerLatency.reset();
+        mBindCount = 0;
+    }
+
+    void onIndicatorUpdated(long keyEventNanos) {
+        if (mPendingKeyCount < MAX_PENDING_KEYS) {
+            mPendingKeys[mPendingKeyCount++] = keyEventNanos;
+        }
+    }
+
+    void onIndicatorDrawn() {
+        if (mPendingKeyCount == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (int i = 0; i < mPendingKeyCount; i++) {
+            long latencyNanos = now - mPendingKeys[i];
+            mKeyLatency.record(latencyNanos);
+            if (mSink != null) {
+                mSink.onKeyLatency(latencyNanos);
+            }
+        }
+        mPendingKeyCount = 0;
+    }
+
+    void onListenerCallback(long durationNanos) {
+        mListenerLatency.record(durationNanos);
+        if (mSink != null) {
+            mSink.onListenerLatency(durationNanos);
+        }
+    }
+
+    void onBind() {
+        // Only ever incremented from the main thread
+        mBindCount++;
+    }
+
+    /**
+     * Receives the samples of a {@link PinLockMetrics} as they are measured, on the main thread
+     */
+    public interface Sink {
+
+        /**
+         * @param latencyNanos the time from a key press to the frame drawing its indicator update
+         */
+        void onKeyLatency(long latencyNanos);
+
+        /**
+         * @param durationNanos the time spent in a callback of the listener
+         */
+        void onListenerLatency(long durationNanos);
+    }
+}
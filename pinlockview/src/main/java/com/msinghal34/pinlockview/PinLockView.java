@@ -1,18 +1,27 @@
 package com.msinghal34.pinlockview;
 
-import android.animation.ObjectAnimator;
 import android.content.Context;
+import android.content.res.Configuration;
 import android.content.res.TypedArray;
 import android.os.Build;
+import android.os.Parcelable;
+import android.os.VibrationEffect;
 import android.util.AttributeSet;
-import android.util.Log;
-import android.view.HapticFeedbackConstants;
+import android.view.MotionEvent;
 
 import androidx.annotation.ColorInt;
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.recyclerview.widget.DefaultItemAnimator;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.Arrays;
+import com.msinghal34.pinlockview.core.AttemptLimiter;
+import com.msinghal34.pinlockview.core.KeyLayout;
+import com.msinghal34.pinlockview.core.PinEventStream;
+
+import java.util.concurrent.Executor;
 
 /**
  * Represents a numeric lock view which can used to taken numbers as input.
@@ -23,100 +32,20 @@ import java.util.Arrays;
  */
 public class PinLockView extends RecyclerView {
 
-    private static final int DEFAULT_PIN_LENGTH = 4;
-    private static final int[] DEFAULT_KEY_SET = {1, 2, 3, 4, 5, 6, 7, 8, 9, 0};
+    static final int DEFAULT_PIN_LENGTH = 4;
+    static final int[] DEFAULT_KEY_SET = {1, 2, 3, 4, 5, 6, 7, 8, 9, 0};
 
-    private String mPin = "";
-    private int mPinLength;
     private int mHorizontalMargin, mVerticalMargin;
-    @ColorInt
-    private int mTextColor, mButtonBackgroundColor;
-    private int mTextSize, mButtonSize, mDeleteButtonSize;
-    private int mDeleteButtonDrawableId;
-    private boolean mShowDeleteButton;
-    private boolean mShowButtonPressAnimation;
-    private boolean mVibrate;
-
-    private IndicatorDots mIndicatorDots;
-    private PinLockAdapter mAdapter;
-    private PinLockListener mPinLockListener;
-    private final PinLockAdapter.OnNumberClickListener mOnNumberClickListener
-            = new PinLockAdapter.OnNumberClickListener() {
-        @Override
-        public void onNumberClicked(int keyValue) {
-            maybeVibrate(HapticFeedbackConstants.KEYBOARD_TAP);
-            if (mPin.length() < mPinLength) {
-                mPin = mPin.concat(String.valueOf(keyValue));
-
-                if (isIndicatorDotsAttached()) {
-                    mIndicatorDots.updateDot(mPin.length());
-                }
 
-                if (mPinLockListener != null) {
-                    if (mPin.length() == mPinLength) {
-                        if (mPinLockListener.onComplete(mPin)) {
-                            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-                                maybeVibrate(HapticFeedbackConstants.CONTEXT_CLICK);
-                            }
-                            resetPinLockView();
-                        } else {
-                            maybeVibrate(HapticFeedbackConstants.LONG_PRESS);
-                            errorPinLockView();
-                        }
-                    } else {
-                        mPinLockListener.onPinChange(mPin.length(), mPin);
-                    }
-                }
-            } else {
-                if (!isShowDeleteButton()) {
-                    resetPinLockView();
-                    mPin = mPin.concat(String.valueOf(keyValue));
-
-                    if (isIndicatorDotsAttached()) {
-                        mIndicatorDots.updateDot(mPin.length());
-                    }
-
-                    if (mPinLockListener != null) {
-                        mPinLockListener.onPinChange(mPin.length(), mPin);
-                    }
-
-                } else {
-                    if (mPinLockListener != null) {
-                        mPinLockListener.onComplete(mPin);
-                    }
-                }
-            }
-        }
-    };
-    private final PinLockAdapter.OnDeleteClickListener mOnDeleteClickListener
-            = new PinLockAdapter.OnDeleteClickListener() {
-        @Override
-        public void onDeleteClicked() {
-            maybeVibrate(HapticFeedbackConstants.VIRTUAL_KEY);
-            if (!mPin.isEmpty()) {
-                mPin = mPin.substring(0, mPin.length() - 1);
-
-                if (isIndicatorDotsAttached()) {
-                    mIndicatorDots.updateDot(mPin.length());
-                }
-
-                if (mPinLockListener != null) {
-                    if (mPin.isEmpty()) {
-                        mPinLockListener.onEmpty();
-                        clearInternalPin();
-                    } else {
-                        mPinLockListener.onPinChange(mPin.length(), mPin);
-                    }
-                }
-            } else {
-                if (mPinLockListener != null) {
-                    mPinLockListener.onEmpty();
-                }
-            }
-        }
-    };
+    private PinInputController mInputController;
+    private PinLockAdapter mAdapter;
+    private LTRGridLayoutManager mLayoutManager;
+    private ItemSpaceDecoration mItemSpaceDecoration;
     private CustomizationOptionsBundle mCustomizationOptionsBundle;
+    private KeyLayout mKeyLayout = KeyLayout.DEFAULT;
     private int[] mCustomKeySet;
+    private boolean mUsesSharedPool;
+    private ItemAnimator mHeldItemAnimator;
 
     public PinLockView(Context context) {
         super(context);
@@ -138,65 +67,299 @@ public class PinLockView extends RecyclerView {
         TypedArray typedArray = getContext().obtainStyledAttributes(attributeSet, R.styleable.PinLockView);
 
         try {
-            mPinLength = typedArray.getInt(R.styleable.PinLockView_plv_pinLength, DEFAULT_PIN_LENGTH);
-            mHorizontalMargin = (int) typedArray.getDimension(R.styleable.PinLockView_plv_horizontalSpacing, ResourceUtils.getDimensionInPx(getContext(), R.dimen.default_horizontal_spacing));
-            mVerticalMargin = (int) typedArray.getDimension(R.styleable.PinLockView_plv_verticalSpacing, ResourceUtils.getDimensionInPx(getContext(), R.dimen.default_vertical_spacing));
-            mTextColor = typedArray.getColor(R.styleable.PinLockView_plv_textColor, ResourceUtils.getColor(getContext(), R.color.white));
-            mButtonBackgroundColor = typedArray.getColor(R.styleable.PinLockView_plv_buttonBackgroundColor, ResourceUtils.getColor(getContext(), R.color.white));
-            mTextSize = (int) typedArray.getDimension(R.styleable.PinLockView_plv_textSize, ResourceUtils.getDimensionInPx(getContext(), R.dimen.default_text_size));
-            mButtonSize = (int) typedArray.getDimension(R.styleable.PinLockView_plv_buttonSize, ResourceUtils.getDimensionInPx(getContext(), R.dimen.default_button_size));
-            mDeleteButtonSize = (int) typedArray.getDimension(R.styleable.PinLockView_plv_deleteButtonSize, ResourceUtils.getDimensionInPx(getContext(), R.dimen.default_delete_button_size));
-            mDeleteButtonDrawableId = typedArray.getResourceId(R.styleable.PinLockView_plv_deleteButtonDrawable, R.drawable.ic_delete);
-            mShowDeleteButton = typedArray.getBoolean(R.styleable.PinLockView_plv_showDeleteButton, true);
-            mShowButtonPressAnimation = typedArray.getBoolean(R.styleable.PinLockView_plv_showButtonPressAnimation, true);
-            mVibrate = typedArray.getBoolean(R.styleable.PinLockView_plv_vibrate, true);
+            mInputController = new PinInputController(this, typedArray.getInt(R.styleable.PinLockView_plv_pinLength, DEFAULT_PIN_LENGTH));
+            mInputController.setVibrate(typedArray.getBoolean(R.styleable.PinLockView_plv_vibrate, true));
+            mHorizontalMargin = (int) ResourceUtils.getDimension(getContext(), typedArray, R.styleable.PinLockView_plv_horizontalSpacing, R.dimen.default_horizontal_spacing);
+            mVerticalMargin = (int) ResourceUtils.getDimension(getContext(), typedArray, R.styleable.PinLockView_plv_verticalSpacing, R.dimen.default_vertical_spacing);
+            mCustomizationOptionsBundle = CustomizationOptionsBundle.fromAttributes(getContext(), typedArray);
         } finally {
             typedArray.recycle();
         }
 
-        mCustomizationOptionsBundle = new CustomizationOptionsBundle();
-        mCustomizationOptionsBundle.setTextColor(mTextColor);
-        mCustomizationOptionsBundle.setButtonBackgroundColor(mButtonBackgroundColor);
-        mCustomizationOptionsBundle.setTextSize(mTextSize);
-        mCustomizationOptionsBundle.setButtonSize(mButtonSize);
-        mCustomizationOptionsBundle.setDeleteButtonDrawable(mDeleteButtonDrawableId);
-        mCustomizationOptionsBundle.setDeleteButtonSize(mDeleteButtonSize);
-        mCustomizationOptionsBundle.setShowDeleteButton(mShowDeleteButton);
-        mCustomizationOptionsBundle.setShowButtonPressAnimation(mShowButtonPressAnimation);
+        mInputController.setShowDeleteButton(mCustomizationOptionsBundle.showDeleteButton());
 
         initView();
     }
 
     private void initView() {
-        setLayoutManager(new LTRGridLayoutManager(getContext(), 3));
+        mLayoutManager = new LTRGridLayoutManager(getContext(), mKeyLayout.getColumnCount());
+        setLayoutManager(mLayoutManager);
 
         mAdapter = new PinLockAdapter(getContext());
-        mAdapter.setOnItemClickListener(mOnNumberClickListener);
-        mAdapter.setOnDeleteClickListener(mOnDeleteClickListener);
+        mAdapter.setOnItemClickListener(mInputController);
+        mAdapter.setOnDeleteClickListener(mInputController);
+        mAdapter.setOnFunctionClickListener(mInputController);
         mAdapter.setCustomizationOptions(mCustomizationOptionsBundle);
-        setAdapter(mAdapter);
+        // The adapter is only set once the view is attached, see onAttachedToWindow
+
+        // The keypad is only resized through setButtonSize, which requests the layout itself
+        setHasFixedSize(true);
 
-        addItemDecoration(new ItemSpaceDecoration(mHorizontalMargin, mVerticalMargin, 3, false));
+        mItemSpaceDecoration = new ItemSpaceDecoration(mHorizontalMargin, mVerticalMargin, mKeyLayout.getColumnCount(), false);
+        addItemDecoration(mItemSpaceDecoration);
         setOverScrollMode(OVER_SCROLL_NEVER);
+        // Reshuffled keys jump straight to their new positions, unless the shuffle animation is enabled
+        setItemAnimator(null);
     }
 
-    private void maybeVibrate(int keyCode) {
-        if (mVibrate) {
-            try {
-                performHapticFeedback(keyCode, HapticFeedbackConstants.FLAG_IGNORE_GLOBAL_SETTING);
-            } catch (Exception e) {
-                Log.e("PinLockView", "Exception while trying to vibrate", e);
+    @Override
+    protected void onAttachedToWindow() {
+        if (getAdapter() == null) {
+            setAdapter(mAdapter);
+
+            // Pooled keys inflated for another theme or configuration are left to the keypads they fit
+            if (PinLockViewPool.isCompatible(getContext())) {
+                // Set after the adapter, as setting an adapter clears a pool no adapter is attached to yet
+                setRecycledViewPool(PinLockViewPool.getSharedPool());
+                mAdapter.setInflationContext(PinLockViewPool.getInflationContext());
+                mUsesSharedPool = true;
             }
         }
+        super.onAttachedToWindow();
+        mInputController.onAttachedToWindow();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        mInputController.onDetachedFromWindow();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        if (mUsesSharedPool && !PinLockViewPool.isCompatible(getContext())) {
+            // The pooled keys were inflated for the old configuration, new keys are inflated with this view's context
+            PinLockViewPool.release();
+            setRecycledViewPool(null);
+            mAdapter.setInflationContext(null);
+            mUsesSharedPool = false;
+        }
+    }
+
+    @Override
+    protected Parcelable onSaveInstanceState() {
+        KeypadSavedState state = new KeypadSavedState(super.onSaveInstanceState());
+        KeyLayout shownLayout = mAdapter.getKeyLayout();
+        if (!shownLayout.equals(mKeyLayout)) {
+            state.setKeyValues(shownLayout.getKeyValues());
+        }
+        state.setDigits(mInputController.saveDigits());
+        return state;
+    }
+
+    @Override
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof KeypadSavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        KeypadSavedState savedState = (KeypadSavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+
+        int[] keyValues = savedState.getKeyValues();
+        if (keyValues != null && keyValues.length == mKeyLayout.getDigitCount()) {
+            showRestoredKeyValues(keyValues);
+        }
+        byte[] digits = savedState.getDigits();
+        if (digits != null) {
+            mInputController.restoreDigits(digits);
+            savedState.wipeDigits();
+        }
     }
 
     /**
-     * Sets a {@link PinLockListener} to the to listen to pin update events
+     * Shows the keys in their saved order at once. The state is usually restored before the adapter is set,
+     * but a fragment added to a running activity is restored once its views are attached, and possibly laid out.
+     */
+    private void showRestoredKeyValues(int[] keyValues) {
+        this.mCustomKeySet = keyValues;
+        ItemAnimator itemAnimator = getItemAnimator();
+        if (itemAnimator != null && getAdapter() != null) {
+            // Held back until the keys are laid out, so that they don't slide from the default order
+            setItemAnimator(null);
+            mHeldItemAnimator = itemAnimator;
+        }
+        mAdapter.replaceKeyLayout(mKeyLayout.withKeyValues(keyValues));
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        if (mHeldItemAnimator != null) {
+            setItemAnimator(mHeldItemAnimator);
+            mHeldItemAnimator = null;
+        }
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent event) {
+        if (event.getActionMasked() == MotionEvent.ACTION_UP) {
+            // The key click is posted after the release, which is when the press really ends
+            mInputController.onTouchUp(event.getEventTime());
+        }
+        return super.dispatchTouchEvent(event);
+    }
+
+    PinInputController getInputController() {
+        return mInputController;
+    }
+
+    /**
+     * Inflates the keys of a keypad off the main thread, into a pool shared by every {@link PinLockView}.
+     * Call it early, e.g. in {@code Application.onCreate}, so that the first keypad shown doesn't
+     * have to inflate its keys while laying out. Shuffled layouts for {@link #enableLayoutShuffling()}
+     * are prepared in the background as well.
+     * <p/>
+     * The keys are inflated with the theme of the given context, they don't hold on to the context itself.
+     * Only keypads with the same configuration and theme take their keys from the pool, the others inflate their own.
+     * Must be called on the main thread.
+     *
+     * @param context the context whose theme is used to inflate the keys
+     */
+    @MainThread
+    public static void prewarm(Context context) {
+        PinLockViewPool.prewarm(context);
+        DefaultLayoutShuffler.get().prefill();
+    }
+
+    /**
+     * Releases the keys inflated by {@link #prewarm(Context)}. Keypads attached afterwards
+     * inflate their own keys again, until the next call to {@link #prewarm(Context)}
+     */
+    @MainThread
+    public static void releasePrewarmedKeys() {
+        PinLockViewPool.release();
+    }
+
+    /**
+     * Sets a {@link PinLockListener} to the to listen to pin update events.
+     * Replaces any {@link PinSequenceListener} set before
      *
      * @param pinLockListener the listener
      */
     public void setPinLockListener(PinLockListener pinLockListener) {
-        this.mPinLockListener = pinLockListener;
+        mInputController.setPinLockListener(pinLockListener);
+    }
+
+    /**
+     * Sets a {@link PinSequenceListener} to listen to pin update events without
+     * allocating a {@link String} per key press. Replaces any {@link PinLockListener} set before
+     *
+     * @param pinSequenceListener the listener
+     */
+    public void setPinSequenceListener(PinSequenceListener pinSequenceListener) {
+        mInputController.setPinSequenceListener(pinSequenceListener);
+    }
+
+    /**
+     * Sets how the pin change and empty callbacks reach the listener. With {@link ListenerDelivery#NEXT_FRAME}
+     * they are deferred to the next frame, all the key presses of a frame producing a single callback with the
+     * latest state, which keeps a slow listener out of the input latency. The default is
+     * {@link ListenerDelivery#IMMEDIATE}.
+     *
+     * @param listenerDelivery the delivery mode
+     */
+    public void setListenerDelivery(@ListenerDelivery int listenerDelivery) {
+        mInputController.setListenerDelivery(listenerDelivery);
+    }
+
+    @ListenerDelivery
+    public int getListenerDelivery() {
+        return mInputController.getListenerDelivery();
+    }
+
+    /**
+     * Gets the stream of the keypad events, for any number of subscribers each called on its own executor.
+     * Events are published as they happen, whatever the {@link ListenerDelivery}, and never carry the digits.
+     *
+     * @return the event stream of this view
+     */
+    @NonNull
+    public PinEventStream getPinEvents() {
+        return mInputController.getEventStream();
+    }
+
+    /**
+     * Starts measuring the latency of the keypad, see {@link PinLockMetrics}. Measuring is off by default.
+     *
+     * @param metrics the metrics to record into, null to stop measuring
+     */
+    public void setMetrics(@Nullable PinLockMetrics metrics) {
+        mInputController.setMetrics(metrics);
+        mAdapter.setMetrics(metrics);
+    }
+
+    @Nullable
+    public PinLockMetrics getMetrics() {
+        return mInputController.getMetrics();
+    }
+
+    /**
+     * Verifies the complete pin with a {@link PinVerifier} running on the given executor, instead of
+     * the result of the listener's onComplete. Input is ignored while the verification is pending.
+     * A pin the executor rejects is reported as wrong, without counting as a failed attempt.
+     *
+     * @param pinVerifier the verifier, null to go back to the listener's result
+     * @param executor    the executor running the verifier, required if the verifier is not null
+     */
+    public void setPinVerifier(@Nullable PinVerifier pinVerifier, @Nullable Executor executor) {
+        mInputController.setPinVerifier(pinVerifier, executor);
+    }
+
+    /**
+     * Sets a {@link PinVerificationListener} to listen to the progress of the {@link PinVerifier}
+     *
+     * @param verificationListener the listener
+     */
+    public void setPinVerificationListener(PinVerificationListener verificationListener) {
+        mInputController.setPinVerificationListener(verificationListener);
+    }
+
+    /**
+     * Whether a complete pin is being verified, in which case the keypad ignores any input
+     *
+     * @return true if a verification is pending
+     */
+    public boolean isVerifying() {
+        return mInputController.isVerifying();
+    }
+
+    /**
+     * Limits the failed attempts with an {@link AttemptLimiter}. Every pin verified by the listener or the
+     * {@link PinVerifier} is recorded, and the keypad ignores input while the limiter locks attempts out.
+     *
+     * @param attemptLimiter the limiter, null to stop limiting the attempts
+     */
+    public void setAttemptLimiter(@Nullable AttemptLimiter attemptLimiter) {
+        mInputController.setAttemptLimiter(attemptLimiter);
+    }
+
+    /**
+     * Sets an {@link AttemptLimitListener} to listen to the lockouts of the {@link AttemptLimiter}
+     *
+     * @param attemptLimitListener the listener
+     */
+    public void setAttemptLimitListener(AttemptLimitListener attemptLimitListener) {
+        mInputController.setAttemptLimitListener(attemptLimitListener);
+    }
+
+    /**
+     * Whether the keypad ignores input because of the {@link AttemptLimiter}, after too many failed attempts
+     *
+     * @return true if the keypad is locked out
+     */
+    public boolean isLockedOut() {
+        return mInputController.isLockedOut();
+    }
+
+    /**
+     * Get the length of the pin
+     *
+     * @return the pin length
+     */
+    public int getPinLength() {
+        return mInputController.getPinLength();
     }
 
     /**
@@ -205,25 +368,49 @@ public class PinLockView extends RecyclerView {
      * @param pinLength the pin length
      */
     public void setPinLength(int pinLength) {
-        this.mPinLength = pinLength;
-
-        if (isIndicatorDotsAttached()) {
-            mIndicatorDots.setPinLength(pinLength);
-        }
+        mInputController.setPinLength(pinLength);
     }
 
     /**
      * Enables vibration dynamically.
      */
     public void enableVibration() {
-        this.mVibrate = true;
+        mInputController.setVibrate(true);
     }
 
     /**
      * Disables vibration dynamically.
      */
     public void disableVibration() {
-        this.mVibrate = false;
+        mInputController.setVibrate(false);
+    }
+
+    /**
+     * Sets whether the digits typed so far survive a configuration change, such as a rotation. They are then
+     * saved in plain text with the state of the view, which the system may write to disk, so this is off by default
+     * and the keypad starts over empty. The order of the keys is always kept.
+     *
+     * @param savePinEnabled true to save the digits
+     */
+    public void setSavePinEnabled(boolean savePinEnabled) {
+        mInputController.setSavePinEnabled(savePinEnabled);
+    }
+
+    public boolean isSavePinEnabled() {
+        return mInputController.isSavePinEnabled();
+    }
+
+    /**
+     * Replaces the vibration played for an event, for example a distinct pattern on success.
+     * Only applicable from API 26, when the app holds the {@code VIBRATE} permission. Otherwise the
+     * view's haptic feedback is used.
+     *
+     * @param event  the event
+     * @param effect the effect, or null for the default one
+     */
+    @RequiresApi(Build.VERSION_CODES.O)
+    public void setHapticEffect(@HapticEvent int event, @Nullable VibrationEffect effect) {
+        mInputController.setHapticEffect(event, effect);
     }
 
     /**
@@ -231,7 +418,7 @@ public class PinLockView extends RecyclerView {
      */
     public void enableButtonPressAnimation() {
         mCustomizationOptionsBundle.setShowButtonPressAnimation(true);
-        mAdapter.notifyDataSetChanged();
+        notifyCustomizationChanged(PinLockAdapter.CHANGE_PRESS_ANIMATION);
     }
 
     /**
@@ -239,7 +426,7 @@ public class PinLockView extends RecyclerView {
      */
     public void disableButtonPressAnimation() {
         mCustomizationOptionsBundle.setShowButtonPressAnimation(false);
-        mAdapter.notifyDataSetChanged();
+        notifyCustomizationChanged(PinLockAdapter.CHANGE_PRESS_ANIMATION);
     }
 
     /**
@@ -248,7 +435,7 @@ public class PinLockView extends RecyclerView {
      * @return the text color
      */
     public @ColorInt int getTextColor() {
-        return mTextColor;
+        return mCustomizationOptionsBundle.getTextColor();
     }
 
     /**
@@ -257,9 +444,8 @@ public class PinLockView extends RecyclerView {
      * @param textColor the text color
      */
     public void setTextColor(@ColorInt int textColor) {
-        this.mTextColor = textColor;
         mCustomizationOptionsBundle.setTextColor(textColor);
-        mAdapter.notifyDataSetChanged();
+        notifyCustomizationChanged(PinLockAdapter.CHANGE_COLOR);
     }
 
     /**
@@ -268,7 +454,7 @@ public class PinLockView extends RecyclerView {
      * @return the background color of button
      */
     public @ColorInt int getButtonBackgroundColor() {
-        return mButtonBackgroundColor;
+        return mCustomizationOptionsBundle.getButtonBackgroundColor();
     }
 
     /**
@@ -277,9 +463,8 @@ public class PinLockView extends RecyclerView {
      * @param buttonBackgroundColor the background color
      */
     public void setButtonBackgroundColor(@ColorInt int buttonBackgroundColor) {
-        this.mButtonBackgroundColor = buttonBackgroundColor;
         mCustomizationOptionsBundle.setButtonBackgroundColor(buttonBackgroundColor);
-        mAdapter.notifyDataSetChanged();
+        notifyCustomizationChanged(PinLockAdapter.CHANGE_COLOR);
     }
 
     /**
@@ -288,7 +473,7 @@ public class PinLockView extends RecyclerView {
      * @return the size of the text in pixels
      */
     public int getTextSize() {
-        return mTextSize;
+        return mCustomizationOptionsBundle.getTextSize();
     }
 
     /**
@@ -297,9 +482,8 @@ public class PinLockView extends RecyclerView {
      * @param textSize the text size in pixels
      */
     public void setTextSize(int textSize) {
-        this.mTextSize = textSize;
         mCustomizationOptionsBundle.setTextSize(textSize);
-        mAdapter.notifyDataSetChanged();
+        notifyCustomizationChanged(PinLockAdapter.CHANGE_TEXT_SIZE);
     }
 
     /**
@@ -308,7 +492,7 @@ public class PinLockView extends RecyclerView {
      * @return the size of the button in pixels
      */
     public int getButtonSize() {
-        return mButtonSize;
+        return mCustomizationOptionsBundle.getButtonSize();
     }
 
     /**
@@ -317,9 +501,8 @@ public class PinLockView extends RecyclerView {
      * @param buttonSize the button size
      */
     public void setButtonSize(int buttonSize) {
-        this.mButtonSize = buttonSize;
         mCustomizationOptionsBundle.setButtonSize(buttonSize);
-        mAdapter.notifyDataSetChanged();
+        notifyCustomizationChanged(PinLockAdapter.CHANGE_BUTTON_SIZE);
     }
 
     /**
@@ -328,7 +511,7 @@ public class PinLockView extends RecyclerView {
      * @return the delete button drawable id.
      */
     public int getDeleteButtonDrawable() {
-        return mDeleteButtonDrawableId;
+        return mCustomizationOptionsBundle.getDeleteButtonDrawable();
     }
 
     /**
@@ -337,9 +520,8 @@ public class PinLockView extends RecyclerView {
      * @param deleteBackgroundDrawableId the delete button drawable
      */
     public void setDeleteButtonDrawable(int deleteBackgroundDrawableId) {
-        this.mDeleteButtonDrawableId = deleteBackgroundDrawableId;
         mCustomizationOptionsBundle.setDeleteButtonDrawable(deleteBackgroundDrawableId);
-        mAdapter.notifyDataSetChanged();
+        notifyCustomizationChanged(PinLockAdapter.CHANGE_DELETE_ICON);
     }
 
     /**
@@ -348,7 +530,7 @@ public class PinLockView extends RecyclerView {
      * @return size in pixels
      */
     public int getDeleteButtonSize() {
-        return mDeleteButtonSize;
+        return mCustomizationOptionsBundle.getDeleteButtonSize();
     }
 
     /**
@@ -357,9 +539,8 @@ public class PinLockView extends RecyclerView {
      * @param deleteButtonSize size in pixels
      */
     public void setDeleteButtonSize(int deleteButtonSize) {
-        this.mDeleteButtonSize = deleteButtonSize;
         mCustomizationOptionsBundle.setDeleteButtonSize(deleteButtonSize);
-        mAdapter.notifyDataSetChanged();
+        notifyCustomizationChanged(PinLockAdapter.CHANGE_DELETE_ICON);
     }
 
     /**
@@ -368,7 +549,7 @@ public class PinLockView extends RecyclerView {
      * @return returns true if shown, false otherwise
      */
     public boolean isShowDeleteButton() {
-        return mShowDeleteButton;
+        return mCustomizationOptionsBundle.showDeleteButton();
     }
 
     /**
@@ -377,15 +558,48 @@ public class PinLockView extends RecyclerView {
      * @param showDeleteButton true if the delete button should be shown, false otherwise
      */
     public void setShowDeleteButton(boolean showDeleteButton) {
-        this.mShowDeleteButton = showDeleteButton;
         mCustomizationOptionsBundle.setShowDeleteButton(showDeleteButton);
-        mAdapter.notifyDataSetChanged();
+        mInputController.setShowDeleteButton(showDeleteButton);
+        notifyCustomizationChanged(PinLockAdapter.CHANGE_DELETE_ICON);
+    }
+
+    /**
+     * Starts a batch of customization changes, which are applied together by {@link Editor#apply()}
+     * with a single rebind of the keys.
+     * <pre>
+     * pinLockView.edit()
+     *         .textColor(textColor)
+     *         .buttonSize(buttonSize)
+     *         .deleteButtonDrawable(R.drawable.ic_delete)
+     *         .apply();
+     * </pre>
+     *
+     * @return an editor for the customization options of this view
+     */
+    public Editor edit() {
+        return new Editor();
+    }
+
+    /**
+     * Rebinds the changed properties of the keys, only requesting a layout of the
+     * keypad when the size of the buttons changed
+     */
+    private void notifyCustomizationChanged(int changes) {
+        mAdapter.notifyCustomizationChanged(changes);
+        if ((changes & PinLockAdapter.CHANGE_BUTTON_SIZE) != 0) {
+            requestLayout();
+        }
     }
 
     public int[] getCustomKeySet() {
         return mCustomKeySet;
     }
 
+    /**
+     * Sets the values of the digit keys, in the order they are shown
+     *
+     * @param customKeySet the values, as many as the digit keys of the {@link KeyLayout}
+     */
     public void setCustomKeySet(int[] customKeySet) {
         this.mCustomKeySet = customKeySet;
 
@@ -394,22 +608,96 @@ public class PinLockView extends RecyclerView {
         }
     }
 
+    /**
+     * Sets the layout of the keys, e.g. a hexadecimal keypad or one with function keys,
+     * the standard 3x4 keypad being {@link KeyLayout#DEFAULT}
+     *
+     * @param keyLayout the layout
+     */
+    public void setKeyLayout(@NonNull KeyLayout keyLayout) {
+        boolean resized = keyLayout.getColumnCount() != mKeyLayout.getColumnCount()
+                || keyLayout.getRowCount() != mKeyLayout.getRowCount();
+        this.mKeyLayout = keyLayout;
+        this.mCustomKeySet = null;
+        mInputController.setHasDeleteKey(keyLayout.hasDeleteKey());
+
+        mLayoutManager.setSpanCount(keyLayout.getColumnCount());
+        mItemSpaceDecoration.setSpanCount(keyLayout.getColumnCount());
+        mAdapter.setKeyLayout(keyLayout);
+        if (resized) {
+            invalidateItemDecorations();
+            requestLayout();
+        }
+    }
+
+    /**
+     * Gets the layout of the keys as currently shown, shuffled or not
+     *
+     * @return the layout
+     */
+    @NonNull
+    public KeyLayout getKeyLayout() {
+        return mAdapter.getKeyLayout();
+    }
+
+    /**
+     * Sets the listener of the function keys of the {@link KeyLayout}
+     *
+     * @param functionKeyListener the listener
+     */
+    public void setFunctionKeyListener(@Nullable FunctionKeyListener functionKeyListener) {
+        mInputController.setFunctionKeyListener(functionKeyListener);
+    }
+
+    /**
+     * Shows the digit keys in a new random order. The standard keys are taken from layouts shuffled ahead of time
+     * with a {@link java.security.SecureRandom} on a background thread, cheap enough to be called after every attempt.
+     */
     public void enableLayoutShuffling() {
-        this.mCustomKeySet = ShuffleArrayUtils.shuffle(DEFAULT_KEY_SET);
+        this.mCustomKeySet = DefaultLayoutShuffler.shuffle(mKeyLayout.getKeyValues());
 
         if (mAdapter != null) {
             mAdapter.setKeyValues(mCustomKeySet);
         }
     }
 
-    public void disableLayoutShuffling() {
-        if (mAdapter != null) {
-            mAdapter.setKeyValues(new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 0});
+    /**
+     * Whether the keys slide to their new positions when the layout is shuffled
+     *
+     * @return true if the shuffle is animated
+     */
+    public boolean isShuffleAnimationEnabled() {
+        return getItemAnimator() != null || mHeldItemAnimator != null;
+    }
+
+    /**
+     * Sets whether the keys slide to their new positions when the layout is shuffled, or changed through
+     * {@link #setCustomKeySet(int[])}. Only the keys that moved are animated, none of them is rebound.
+     *
+     * @param enabled true to animate the shuffle, false by default
+     */
+    public void setShuffleAnimationEnabled(boolean enabled) {
+        if (enabled == isShuffleAnimationEnabled()) {
+            return;
+        }
+        mHeldItemAnimator = null;
+        if (enabled) {
+            DefaultItemAnimator itemAnimator = new DefaultItemAnimator();
+            // Customization changes rebind the keys in place, there is nothing to cross fade
+            itemAnimator.setSupportsChangeAnimations(false);
+            setItemAnimator(itemAnimator);
+        } else {
+            setItemAnimator(null);
         }
     }
 
-    private void clearInternalPin() {
-        mPin = "";
+    /**
+     * Puts the keys back in the order of the {@link KeyLayout}
+     */
+    public void disableLayoutShuffling() {
+        if (mAdapter != null) {
+            mAdapter.setKeyLayout(mKeyLayout);
+        }
     }
 
     /**
@@ -417,27 +705,48 @@ public class PinLockView extends RecyclerView {
      * and resetting the {@link IndicatorDots} if attached
      */
     public void resetPinLockView() {
-        clearInternalPin();
-
-        if (mIndicatorDots != null) {
-            mIndicatorDots.updateDot(mPin.length());
-        }
+        mInputController.reset();
     }
 
     /**
-     * Resets the {@link PinLockView}, clearing the entered pin
-     * and resetting the {@link IndicatorDots} if attached
+     * Shows the error feedback on the {@link PinLockView} and the {@link IndicatorDots} if attached,
+     * clearing the entered pin when it ends. Any new input ends the feedback early.
      */
     public void errorPinLockView() {
-        if (mIndicatorDots != null) {
-            mIndicatorDots.error();
-        }
-        ObjectAnimator shake = ObjectAnimator.ofFloat(this, "translationX", 0f, 100f, -100f, 0f);
-        shake.setDuration(200);
-        shake.start();
-        resetPinLockView();
+        mInputController.error();
+    }
 
-        postDelayed(() -> resetPinLockView(), 200L);
+    /**
+     * Sets the effects played on a wrong pin, a shake of the keypad and the {@link IndicatorDots} by default.
+     * See {@link FeedbackEffects} for the built in effects.
+     *
+     * @param effects the effects, played together
+     */
+    public void setErrorFeedbackEffects(FeedbackEffect... effects) {
+        mInputController.setErrorFeedbackEffects(effects);
+    }
+
+    /**
+     * Enters a sequence of digits at once, for autofill, paste, accessibility actions or tests. The digits are
+     * appended to the pin as if they were typed, with a single update of the {@link IndicatorDots} and a single
+     * call to the listener's onPinChange or onComplete, and no haptics per digit.
+     *
+     * @param digits the digits to enter, '0' to '9' then 'A' to 'Z' in either case for the keys above 9
+     * @return true if the digits were entered, false if the keypad is locked, or the sequence holds
+     * a digit without a key in the {@link KeyLayout} or is longer than the rest of the pin, in which case
+     * nothing is entered
+     */
+    public boolean enterDigits(@NonNull CharSequence digits) {
+        return mKeyLayout.hasDigits(digits) && mInputController.enterDigits(digits);
+    }
+
+    /**
+     * Returns the number of digits entered so far, without exposing the pin itself
+     *
+     * @return the current pin length
+     */
+    public int getPinDigitCount() {
+        return mInputController.getPinDigitCount();
     }
 
     /**
@@ -446,7 +755,7 @@ public class PinLockView extends RecyclerView {
      * @return true if attached, false otherwise
      */
     public boolean isIndicatorDotsAttached() {
-        return mIndicatorDots != null;
+        return mInputController.isIndicatorDotsAttached();
     }
 
     /**
@@ -455,6 +764,184 @@ public class PinLockView extends RecyclerView {
      * @param mIndicatorDots the view to attach
      */
     public void attachIndicatorDots(IndicatorDots mIndicatorDots) {
-        this.mIndicatorDots = mIndicatorDots;
+        mInputController.attachIndicatorDots(mIndicatorDots);
+    }
+
+    /**
+     * Collects customization changes for {@link PinLockView} and the attached {@link IndicatorDots},
+     * see {@link PinLockView#edit()}. Nothing is changed until {@link #apply()} is called.
+     */
+    public final class Editor {
+
+        private static final int TEXT_COLOR = 1;
+        private static final int BUTTON_BACKGROUND_COLOR = 1 << 1;
+        private static final int TEXT_SIZE = 1 << 2;
+        private static final int BUTTON_SIZE = 1 << 3;
+        private static final int DELETE_BUTTON_DRAWABLE = 1 << 4;
+        private static final int DELETE_BUTTON_SIZE = 1 << 5;
+        private static final int SHOW_DELETE_BUTTON = 1 << 6;
+        private static final int SHOW_BUTTON_PRESS_ANIMATION = 1 << 7;
+        private static final int DOT_COLOR = 1 << 8;
+        private static final int DOT_DIAMETER = 1 << 9;
+        private static final int DOT_MARGIN = 1 << 10;
+        private static final int INDICATOR_TYPE = 1 << 11;
+
+        private int mEdited;
+        @ColorInt
+        private int mTextColor, mButtonBackgroundColor, mDotColor;
+        private int mTextSize, mButtonSize, mDeleteButtonDrawableId, mDeleteButtonSize;
+        private int mDotDiameter, mDotMargin, mIndicatorType;
+        private boolean mShowDeleteButton, mShowButtonPressAnimation;
+
+        private Editor() {
+        }
+
+        public Editor textColor(@ColorInt int textColor) {
+            mTextColor = textColor;
+            mEdited |= TEXT_COLOR;
+            return this;
+        }
+
+        public Editor buttonBackgroundColor(@ColorInt int buttonBackgroundColor) {
+            mButtonBackgroundColor = buttonBackgroundColor;
+            mEdited |= BUTTON_BACKGROUND_COLOR;
+            return this;
+        }
+
+        public Editor textSize(int textSize) {
+            mTextSize = textSize;
+            mEdited |= TEXT_SIZE;
+            return this;
+        }
+
+        public Editor buttonSize(int buttonSize) {
+            mButtonSize = buttonSize;
+            mEdited |= BUTTON_SIZE;
+            return this;
+        }
+
+        public Editor deleteButtonDrawable(int deleteButtonDrawableId) {
+            mDeleteButtonDrawableId = deleteButtonDrawableId;
+            mEdited |= DELETE_BUTTON_DRAWABLE;
+            return this;
+        }
+
+        public Editor deleteButtonSize(int deleteButtonSize) {
+            mDeleteButtonSize = deleteButtonSize;
+            mEdited |= DELETE_BUTTON_SIZE;
+            return this;
+        }
+
+        public Editor showDeleteButton(boolean showDeleteButton) {
+            mShowDeleteButton = showDeleteButton;
+            mEdited |= SHOW_DELETE_BUTTON;
+            return this;
+        }
+
+        public Editor showButtonPressAnimation(boolean showButtonPressAnimation) {
+            mShowButtonPressAnimation = showButtonPressAnimation;
+            mEdited |= SHOW_BUTTON_PRESS_ANIMATION;
+            return this;
+        }
+
+        /**
+         * Only applied if {@link IndicatorDots} are attached
+         */
+        public Editor dotColor(@ColorInt int dotColor) {
+            mDotColor = dotColor;
+            mEdited |= DOT_COLOR;
+            return this;
+        }
+
+        /**
+         * Only applied if {@link IndicatorDots} are attached
+         */
+        public Editor dotDiameter(int dotDiameter) {
+            mDotDiameter = dotDiameter;
+            mEdited |= DOT_DIAMETER;
+            return this;
+        }
+
+        /**
+         * Only applied if {@link IndicatorDots} are attached
+         */
+        public Editor dotMargin(int dotMargin) {
+            mDotMargin = dotMargin;
+            mEdited |= DOT_MARGIN;
+            return this;
+        }
+
+        /**
+         * Only applied if {@link IndicatorDots} are attached
+         */
+        public Editor indicatorType(@IndicatorDots.IndicatorType int indicatorType) {
+            mIndicatorType = indicatorType;
+            mEdited |= INDICATOR_TYPE;
+            return this;
+        }
+
+        /**
+         * Applies all the changes at once, with a single rebind of the affected keys.
+         * A layout is only requested if the size of the buttons changed
+         */
+        public void apply() {
+            CustomizationOptionsBundle options = mCustomizationOptionsBundle;
+            int changes = 0;
+
+            if ((mEdited & TEXT_COLOR) != 0) {
+                options.setTextColor(mTextColor);
+                changes |= PinLockAdapter.CHANGE_COLOR;
+            }
+            if ((mEdited & BUTTON_BACKGROUND_COLOR) != 0) {
+                options.setButtonBackgroundColor(mButtonBackgroundColor);
+                changes |= PinLockAdapter.CHANGE_COLOR;
+            }
+            if ((mEdited & TEXT_SIZE) != 0) {
+                options.setTextSize(mTextSize);
+                changes |= PinLockAdapter.CHANGE_TEXT_SIZE;
+            }
+            if ((mEdited & BUTTON_SIZE) != 0) {
+                options.setButtonSize(mButtonSize);
+                changes |= PinLockAdapter.CHANGE_BUTTON_SIZE;
+            }
+            if ((mEdited & DELETE_BUTTON_DRAWABLE) != 0) {
+                options.setDeleteButtonDrawable(mDeleteButtonDrawableId);
+                changes |= PinLockAdapter.CHANGE_DELETE_ICON;
+            }
+            if ((mEdited & DELETE_BUTTON_SIZE) != 0) {
+                options.setDeleteButtonSize(mDeleteButtonSize);
+                changes |= PinLockAdapter.CHANGE_DELETE_ICON;
+            }
+            if ((mEdited & SHOW_DELETE_BUTTON) != 0) {
+                options.setShowDeleteButton(mShowDeleteButton);
+                mInputController.setShowDeleteButton(mShowDeleteButton);
+                changes |= PinLockAdapter.CHANGE_DELETE_ICON;
+            }
+            if ((mEdited & SHOW_BUTTON_PRESS_ANIMATION) != 0) {
+                options.setShowButtonPressAnimation(mShowButtonPressAnimation);
+                changes |= PinLockAdapter.CHANGE_PRESS_ANIMATION;
+            }
+
+            if (changes != 0) {
+                notifyCustomizationChanged(changes);
+            }
+
+            IndicatorDots indicatorDots = mInputController.getIndicatorDots();
+            if (indicatorDots != null) {
+                if ((mEdited & DOT_COLOR) != 0) {
+                    indicatorDots.setDotColor(mDotColor);
+                }
+                if ((mEdited & DOT_DIAMETER) != 0) {
+                    indicatorDots.setDotDiameter(mDotDiameter);
+                }
+                if ((mEdited & DOT_MARGIN) != 0) {
+                    indicatorDots.setDotMargin(mDotMargin);
+                }
+                if ((mEdited & INDICATOR_TYPE) != 0) {
+                    indicatorDots.setIndicatorType(mIndicatorType);
+                }
+            }
+            mEdited = 0;
+        }
     }
 }
@@ -0,0 +1,174 @@
+package com.msinghal34.pinlockview;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.TypedValue;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * The process wide pool of key views shared by every {@link PinLockView}, filled ahead of time by
+ * {@link PinLockView#prewarm(Context)}.
+ * <p/>
+ * The keys are inflated off the main thread with an {@link AsyncLayoutInflater}, using a context built on the
+ * application context with a copy of the caller's theme, so that the pooled views never hold on to an activity.
+ * A keypad only takes keys from the pool when its configuration and theme match the ones the keys were
+ * inflated with, see {@link #isCompatible(Context)}.
+ */
+final class PinLockViewPool {
+
+    private static final int NUMBER_KEY_COUNT = 11;
+    private static final int DELETE_KEY_COUNT = 1;
+
+    // The theme attributes the key layouts resolve when inflated
+    private static final int[] THEMED_ATTRS = {
+            android.R.attr.selectableItemBackgroundBorderless,
+            android.R.attr.colorControlHighlight,
+            android.R.attr.textColorPrimary,
+            android.R.attr.textAppearance
+    };
+
+    private static RecyclerView.RecycledViewPool sSharedPool;
+    private static Context sInflationContext;
+    private static Configuration sConfiguration;
+    private static int[] sThemeFingerprint;
+    private static RecyclerView sInflationParent;
+    private static PrewarmAdapter sPrewarmAdapter;
+
+    private PinLockViewPool() {
+        throw new AssertionError();
+    }
+
+    @MainThread
+    static void prewarm(Context context) {
+        if (sSharedPool != null && !isCompatible(context)) {
+            // The keys inflated so far would look wrong in this context
+            release();
+        }
+        if (sSharedPool == null) {
+            ContextThemeWrapper inflationContext = new ContextThemeWrapper(context.getApplicationContext(), 0);
+            inflationContext.getTheme().setTo(context.getTheme());
+            sInflationContext = inflationContext;
+            sConfiguration = new Configuration(context.getResources().getConfiguration());
+            sThemeFingerprint = getThemeFingerprint(context);
+
+            sSharedPool = new RecyclerView.RecycledViewPool();
+            sSharedPool.setMaxRecycledViews(PinLockAdapter.VIEW_TYPE_NUMBER, NUMBER_KEY_COUNT);
+            sSharedPool.setMaxRecycledViews(PinLockAdapter.VIEW_TYPE_DELETE, DELETE_KEY_COUNT);
+        }
+
+        if (sInflationParent == null) {
+            // Only used to generate the layout params of the inflated keys
+            sInflationParent = new RecyclerView(sInflationContext);
+            sInflationParent.setLayoutManager(new LTRGridLayoutManager(sInflationContext, 3));
+            sPrewarmAdapter = new PrewarmAdapter();
+        }
+
+        AsyncLayoutInflater inflater = new AsyncLayoutInflater(sInflationContext);
+        AsyncLayoutInflater.OnInflateFinishedListener onInflateFinished = PinLockViewPool::onInflateFinished;
+        int missingNumberKeys = NUMBER_KEY_COUNT - sSharedPool.getRecycledViewCount(PinLockAdapter.VIEW_TYPE_NUMBER);
+        for (int i = 0; i < missingNumberKeys; i++) {
+            inflater.inflate(PinLockAdapter.getLayoutId(PinLockAdapter.VIEW_TYPE_NUMBER), sInflationParent, onInflateFinished);
+        }
+        int missingDeleteKeys = DELETE_KEY_COUNT - sSharedPool.getRecycledViewCount(PinLockAdapter.VIEW_TYPE_DELETE);
+        for (int i = 0; i < missingDeleteKeys; i++) {
+            inflater.inflate(PinLockAdapter.getLayoutId(PinLockAdapter.VIEW_TYPE_DELETE), sInflationParent, onInflateFinished);
+        }
+    }
+
+    private static void onInflateFinished(@NonNull View view, int resid, ViewGroup parent) {
+        if (sSharedPool == null) {
+            return;
+        }
+        int viewType = resid == PinLockAdapter.getLayoutId(PinLockAdapter.VIEW_TYPE_NUMBER)
+                ? PinLockAdapter.VIEW_TYPE_NUMBER : PinLockAdapter.VIEW_TYPE_DELETE;
+        sSharedPool.putRecycledView(sPrewarmAdapter.wrap(view, viewType));
+    }
+
+    @MainThread
+    static void release() {
+        if (sSharedPool != null) {
+            sSharedPool.clear();
+        }
+        sSharedPool = null;
+        sInflationContext = null;
+        sConfiguration = null;
+        sThemeFingerprint = null;
+        sInflationParent = null;
+        sPrewarmAdapter = null;
+    }
+
+    static RecyclerView.RecycledViewPool getSharedPool() {
+        return sSharedPool;
+    }
+
+    static Context getInflationContext() {
+        return sInflationContext;
+    }
+
+    /**
+     * Returns true if the pooled keys can be shown in the given context, i.e. they were inflated
+     * with the same configuration and an equivalent theme
+     *
+     * @param context the context of the keypad
+     */
+    static boolean isCompatible(Context context) {
+        return sSharedPool != null
+                && sConfiguration.diff(context.getResources().getConfiguration()) == 0
+                && Arrays.equals(sThemeFingerprint, getThemeFingerprint(context));
+    }
+
+    private static int[] getThemeFingerprint(Context context) {
+        int[] fingerprint = new int[THEMED_ATTRS.length * 3];
+        TypedValue value = new TypedValue();
+        for (int i = 0; i < THEMED_ATTRS.length; i++) {
+            if (context.getTheme().resolveAttribute(THEMED_ATTRS[i], value, true)) {
+                fingerprint[3 * i] = value.type;
+                fingerprint[3 * i + 1] = value.data;
+                fingerprint[3 * i + 2] = value.resourceId;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Turns the asynchronously inflated views into view holders, going through
+     * {@link RecyclerView.Adapter#createViewHolder(ViewGroup, int)} so that their view type is set
+     */
+    private static final class PrewarmAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        private View mPendingView;
+
+        RecyclerView.ViewHolder wrap(View view, int viewType) {
+            mPendingView = view;
+            try {
+                return createViewHolder(sInflationParent, viewType);
+            } finally {
+                mPendingView = null;
+            }
+        }
+
+        @NonNull
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+            return PinLockAdapter.newViewHolder(mPendingView, viewType);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return 0;
+        }
+    }
+}
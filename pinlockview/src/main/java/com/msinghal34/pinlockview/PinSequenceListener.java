@@ -0,0 +1,33 @@
+package com.msinghal34.pinlockview;
+
+/**
+ * A variant of {@link PinLockListener} which receives the entered pin as a {@link CharSequence}
+ * view over the internal buffer of {@link PinLockView}, instead of a freshly allocated {@link String}.
+ * <p/>
+ * The sequence is only valid for the duration of the callback, it is wiped as soon as the pin is reset.
+ * Copy the characters out if they are needed later on.
+ */
+public interface PinSequenceListener {
+
+    /**
+     * Triggers when the complete pin is entered,
+     * depends on the pin length set by the user
+     *
+     * @param pin a view over the complete pin
+     * @return true if the pin is correct, false otherwise
+     */
+    boolean onComplete(CharSequence pin);
+
+    /**
+     * Triggers when the pin is empty after manual deletion
+     */
+    void onEmpty();
+
+    /**
+     * Triggers on a key press on the {@link PinLockView}
+     *
+     * @param pinLength       the current pin length
+     * @param intermediatePin a view over the intermediate pin
+     */
+    void onPinChange(int pinLength, CharSequence intermediatePin);
+}
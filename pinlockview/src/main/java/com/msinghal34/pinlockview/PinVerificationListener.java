@@ -0,0 +1,26 @@
+package com.msinghal34.pinlockview;
+
+/**
+ * The listener that triggers callbacks for the asynchronous verification of a pin by a {@link PinVerifier}.
+ * All the callbacks are made on the main thread.
+ */
+public interface PinVerificationListener {
+
+    /**
+     * Triggers when the complete pin is handed to the {@link PinVerifier}, the keypad ignores
+     * any input until the verification finishes or is cancelled
+     */
+    void onVerificationStarted();
+
+    /**
+     * Triggers when the {@link PinVerifier} returns, after the view has been reset or shown the error
+     *
+     * @param verified true if the pin is correct, false otherwise
+     */
+    void onVerificationFinished(boolean verified);
+
+    /**
+     * Triggers when a pending verification is cancelled by a reset of the view, its result will never be delivered
+     */
+    void onVerificationCancelled();
+}
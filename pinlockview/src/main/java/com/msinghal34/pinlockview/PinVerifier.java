@@ -0,0 +1,24 @@
+package com.msinghal34.pinlockview;
+
+import androidx.annotation.WorkerThread;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Verifies a complete pin away from the main thread, on the {@link Executor} given to
+ * {@link PinLockView#setPinVerifier(PinVerifier, Executor)}.
+ * <p/>
+ * While the verification is pending the keypad ignores any input. The result is posted back
+ * to the main thread and discarded if the view is reset in the meantime.
+ */
+public interface PinVerifier {
+
+    /**
+     * Verifies the complete pin
+     *
+     * @param pin a copy of the pin, wiped as soon as this method returns
+     * @return true if the pin is correct, false otherwise
+     */
+    @WorkerThread
+    boolean verify(char[] pin);
+}
@@ -0,0 +1,45 @@
+package com.msinghal34.pinlockview;
+
+import android.content.res.ColorStateList;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
+
+/**
+ * An immutable snapshot of a {@link CustomizationOptionsBundle}, with every value
+ * already converted to the form the key views consume.
+ * <p/>
+ * {@link PinLockAdapter} derives a new snapshot only when the bundle changes, and a bind
+ * only applies the snapshot to a holder which has not seen it yet.
+ */
+final class ResolvedKeyStyle {
+
+    final int modificationCount;
+    final ColorStateList textColor;
+    final float textSize;
+    final int buttonSize;
+    final ColorStateList buttonBackgroundTint;
+    final int pressBackgroundResId;
+    final boolean showDeleteButton;
+    final int deleteButtonDrawableId;
+    final int deleteButtonSize;
+    final PorterDuffColorFilter deleteForegroundFilter;
+    final PorterDuffColorFilter deleteBackgroundFilter;
+
+    ResolvedKeyStyle(CustomizationOptionsBundle options, int selectableBackgroundResId) {
+        this.modificationCount = options.getModificationCount();
+        this.textColor = ColorStateList.valueOf(options.getTextColor());
+        this.textSize = options.getTextSize();
+        this.buttonSize = options.getButtonSize();
+        this.buttonBackgroundTint = ColorStateList.valueOf(options.getButtonBackgroundColor());
+        this.pressBackgroundResId = options.showButtonPressAnimation() ? selectableBackgroundResId : 0;
+        this.showDeleteButton = options.showDeleteButton();
+        this.deleteButtonDrawableId = options.getDeleteButtonDrawable();
+        this.deleteButtonSize = options.getDeleteButtonSize();
+        this.deleteForegroundFilter = new PorterDuffColorFilter(options.getTextColor(), PorterDuff.Mode.SRC_IN);
+        this.deleteBackgroundFilter = new PorterDuffColorFilter(options.getButtonBackgroundColor(), PorterDuff.Mode.SRC_IN);
+    }
+
+    boolean isStale(CustomizationOptionsBundle options) {
+        return modificationCount != options.getModificationCount();
+    }
+}
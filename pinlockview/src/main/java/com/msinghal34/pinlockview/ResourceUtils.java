@@ -1,15 +1,29 @@
 package com.msinghal34.pinlockview;
 
 import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
 import android.graphics.drawable.Drawable;
+import android.util.SparseIntArray;
 
+import androidx.annotation.ColorInt;
 import androidx.annotation.ColorRes;
 import androidx.annotation.DimenRes;
 import androidx.annotation.DrawableRes;
+import androidx.annotation.StyleableRes;
 import androidx.core.content.ContextCompat;
 
+import java.util.WeakHashMap;
+
 public class ResourceUtils {
 
+    /**
+     * The default dimensions, as float bits, and colors of the views, per theme, shared by every view using it.
+     * They only hold for the configuration they were resolved in, and are dropped when it changes.
+     */
+    private static final WeakHashMap<Resources.Theme, Defaults> sDefaults = new WeakHashMap<>();
+
     private ResourceUtils() {
         throw new AssertionError();
     }
@@ -25,4 +39,82 @@ public class ResourceUtils {
     public static Drawable getDrawable(Context context, @DrawableRes int id) {
         return ContextCompat.getDrawable(context, id);
     }
+
+    /**
+     * Reads a dimension attribute, only resolving the default when the attribute is not set
+     *
+     * @param context    the context of the view
+     * @param typedArray the attributes of the view
+     * @param index      the index of the attribute
+     * @param defaultId  the default dimension
+     * @return the dimension in pixels
+     */
+    static float getDimension(Context context, TypedArray typedArray, @StyleableRes int index, @DimenRes int defaultId) {
+        if (typedArray.hasValue(index)) {
+            return typedArray.getDimension(index, 0);
+        }
+        synchronized (sDefaults) {
+            SparseIntArray dimensions = getDefaults(context).mDimensions;
+            int cached = dimensions.indexOfKey(defaultId);
+            if (cached >= 0) {
+                return Float.intBitsToFloat(dimensions.valueAt(cached));
+            }
+            float dimension = getDimensionInPx(context, defaultId);
+            dimensions.put(defaultId, Float.floatToRawIntBits(dimension));
+            return dimension;
+        }
+    }
+
+    /**
+     * Reads a color attribute, only resolving the default when the attribute is not set
+     *
+     * @param context    the context of the view
+     * @param typedArray the attributes of the view
+     * @param index      the index of the attribute
+     * @param defaultId  the default color
+     * @return the color
+     */
+    @ColorInt
+    static int getColor(Context context, TypedArray typedArray, @StyleableRes int index, @ColorRes int defaultId) {
+        if (typedArray.hasValue(index)) {
+            return typedArray.getColor(index, 0);
+        }
+        synchronized (sDefaults) {
+            SparseIntArray colors = getDefaults(context).mColors;
+            int cached = colors.indexOfKey(defaultId);
+            if (cached >= 0) {
+                return colors.valueAt(cached);
+            }
+            int color = getColor(context, defaultId);
+            colors.put(defaultId, color);
+            return color;
+        }
+    }
+
+    /**
+     * Returns the defaults cached for the theme of the context, dropping them if they were resolved in another
+     * configuration. Any difference counts, the resources can be qualified by locale, layout direction or screen size.
+     */
+    private static Defaults getDefaults(Context context) {
+        Resources.Theme theme = context.getTheme();
+        Configuration configuration = context.getResources().getConfiguration();
+        Defaults defaults = sDefaults.get(theme);
+        if (defaults == null || !defaults.mConfiguration.equals(configuration)) {
+            defaults = new Defaults(configuration);
+            sDefaults.put(theme, defaults);
+        }
+        return defaults;
+    }
+
+    private static final class Defaults {
+
+        final Configuration mConfiguration;
+        final SparseIntArray mDimensions = new SparseIntArray();
+        final SparseIntArray mColors = new SparseIntArray();
+
+        Defaults(Configuration configuration) {
+            // A copy, the configuration of the resources being updated in place
+            this.mConfiguration = new Configuration(configuration);
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package com.msinghal34.pinlockview;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.WorkerThread;
+
+import com.msinghal34.pinlockview.core.AttemptLimiter;
+
+/**
+ * An {@link AttemptLimiter.Store} keeping the failed attempts in {@link SharedPreferences}, so that
+ * a lockout survives the death of the process.
+ * <p/>
+ * The limiter only writes on its own executor, after coalescing the updates, so the writes are committed
+ * synchronously there rather than queued on the main thread.
+ */
+public class SharedPreferencesAttemptStore implements AttemptLimiter.Store {
+
+    private static final String KEY_FAILURE_COUNT = "failure_count";
+    private static final String KEY_LOCKOUT_END = "lockout_end";
+
+    private final SharedPreferences mPreferences;
+
+    /**
+     * @param context the context
+     * @param name    the name of the preferences file holding the attempts
+     */
+    public SharedPreferencesAttemptStore(Context context, String name) {
+        this.mPreferences = context.getApplicationContext().getSharedPreferences(name, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public int readFailureCount() {
+        return mPreferences.getInt(KEY_FAILURE_COUNT, 0);
+    }
+
+    @Override
+    public long readLockoutEndMillis() {
+        return mPreferences.getLong(KEY_LOCKOUT_END, 0L);
+    }
+
+    @WorkerThread
+    @Override
+    public void write(int failureCount, long lockoutEndMillis) {
+        mPreferences.edit()
+                .putInt(KEY_FAILURE_COUNT, failureCount)
+                .putLong(KEY_LOCKOUT_END, lockoutEndMillis)
+                .commit();
+    }
+}
@@ -0,0 +1,40 @@
+package com.msinghal34.pinlockview;
+
+public class SpacingUtils {
+
+    static final int LEFT = 0;
+    static final int TOP = 1;
+    static final int RIGHT = 2;
+    static final int BOTTOM = 3;
+
+    private SpacingUtils() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Computes the offsets of a grid cell so that all the columns keep the same width
+     *
+     * @param position             the adapter position of the cell
+     * @param spanCount            the number of columns
+     * @param horizontalSpaceWidth the space between two columns
+     * @param verticalSpaceHeight  the space between two rows
+     * @param includeEdge          whether the space is also added around the grid
+     * @param outOffsets           receives the left, top, right and bottom offsets
+     */
+    static void getItemOffsets(int position, int spanCount, int horizontalSpaceWidth, int verticalSpaceHeight,
+                               boolean includeEdge, int[] outOffsets) {
+        int column = position % spanCount;
+
+        if (includeEdge) {
+            outOffsets[LEFT] = horizontalSpaceWidth - column * horizontalSpaceWidth / spanCount;
+            outOffsets[RIGHT] = (column + 1) * horizontalSpaceWidth / spanCount;
+            outOffsets[TOP] = position < spanCount ? verticalSpaceHeight : 0;
+            outOffsets[BOTTOM] = verticalSpaceHeight;
+        } else {
+            outOffsets[LEFT] = column * horizontalSpaceWidth / spanCount;
+            outOffsets[RIGHT] = horizontalSpaceWidth - (column + 1) * horizontalSpaceWidth / spanCount;
+            outOffsets[TOP] = position >= spanCount ? verticalSpaceHeight : 0;
+            outOffsets[BOTTOM] = 0;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.msinghal34.pinlockview;
+
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes allocated by the calling thread, through the HotSpot thread allocation counters
+ */
+final class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private AllocationCounter() {
+        throw new AssertionError();
+    }
+
+    /**
+     * Skips the calling test on a JVM without per thread allocation counters
+     */
+    static void assumeSupported() {
+        assumeTrue(THREAD_BEAN.isThreadAllocatedMemorySupported());
+        THREAD_BEAN.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Runs an operation a number of times, after as many warm up runs, and returns the average number of bytes
+     * it allocated per run. One-off allocations, e.g. of lazily created fields, are amortized below one byte.
+     *
+     * @param runs      the number of runs to measure
+     * @param operation the operation
+     */
+    static long bytesPerRun(int runs, Runnable operation) {
+        for (int i = 0; i < runs; i++) {
+            operation.run();
+        }
+        long start = THREAD_BEAN.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < runs; i++) {
+            operation.run();
+        }
+        return (THREAD_BEAN.getCurrentThreadAllocatedBytes() - start) / runs;
+    }
+}
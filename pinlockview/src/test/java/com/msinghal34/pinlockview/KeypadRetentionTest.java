@@ -0,0 +1,113 @@
+package com.msinghal34.pinlockview;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Checks that nothing outlives the activity hosting a keypad, the process wide pool of keys in particular
+ */
+@RunWith(RobolectricTestRunner.class)
+public class KeypadRetentionTest {
+
+    private static final int MAX_GC_RUNS = 20;
+
+    @After
+    public void tearDown() {
+        PinLockView.releasePrewarmedKeys();
+    }
+
+    @Test
+    public void destroyedActivity_isNotRetained() {
+        assertNotRetained(showAndDestroyKeypad(false));
+    }
+
+    @Test
+    public void keysRecycledIntoSharedPool_doNotRetainActivity() {
+        assertNotRetained(showAndDestroyKeypad(true));
+    }
+
+    /**
+     * Shows a keypad with attached dots, types a digit and destroys the hosting activity, keeping
+     * only weak references behind
+     *
+     * @param recycleKeys true to recycle the keys into the shared pool before the activity is destroyed
+     */
+    private static Retained showAndDestroyKeypad(boolean recycleKeys) {
+        ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class).setup();
+        Activity activity = controller.get();
+        if (recycleKeys) {
+            PinLockView.prewarm(activity);
+        }
+
+        LinearLayout root = new LinearLayout(activity);
+        root.setOrientation(LinearLayout.VERTICAL);
+        IndicatorDots indicatorDots = new IndicatorDots(activity);
+        PinLockView pinLockView = new PinLockView(activity);
+        root.addView(indicatorDots);
+        root.addView(pinLockView);
+        activity.setContentView(root);
+        pinLockView.attachIndicatorDots(indicatorDots);
+        root.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+        root.layout(0, 0, 1080, 1920);
+        pinLockView.getInputController().onNumberClicked(1);
+
+        Retained retained = new Retained(activity, pinLockView, (PinLockAdapter) pinLockView.getAdapter(), indicatorDots);
+        if (recycleKeys) {
+            // Detaching the adapter recycles the keys shown into the pool
+            pinLockView.setAdapter(null);
+            assertTrue("No key was recycled into the shared pool",
+                    PinLockViewPool.getSharedPool().getRecycledViewCount(PinLockAdapter.VIEW_TYPE_NUMBER) > 0);
+        }
+
+        controller.pause().stop().destroy();
+        shadowOf(Looper.getMainLooper()).idle();
+        return retained;
+    }
+
+    private static void assertNotRetained(Retained retained) {
+        for (int i = 0; i < MAX_GC_RUNS && retained.isAnyReachable(); i++) {
+            System.gc();
+            System.runFinalization();
+        }
+        assertNull("The activity is still reachable", retained.mActivity.get());
+        assertNull("The PinLockView is still reachable", retained.mPinLockView.get());
+        assertNull("The PinLockAdapter is still reachable", retained.mAdapter.get());
+        assertNull("The IndicatorDots are still reachable", retained.mIndicatorDots.get());
+    }
+
+    private static final class Retained {
+
+        final WeakReference<Activity> mActivity;
+        final WeakReference<PinLockView> mPinLockView;
+        final WeakReference<PinLockAdapter> mAdapter;
+        final WeakReference<IndicatorDots> mIndicatorDots;
+
+        Retained(Activity activity, PinLockView pinLockView, PinLockAdapter adapter, IndicatorDots indicatorDots) {
+            this.mActivity = new WeakReference<>(activity);
+            this.mPinLockView = new WeakReference<>(pinLockView);
+            this.mAdapter = new WeakReference<>(adapter);
+            this.mIndicatorDots = new WeakReference<>(indicatorDots);
+        }
+
+        boolean isAnyReachable() {
+            return mActivity.get() != null || mPinLockView.get() != null
+                    || mAdapter.get() != null || mIndicatorDots.get() != null;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.msinghal34.pinlockview;
+
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.os.Looper;
+import android.view.View;
+import android.widget.LinearLayout;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.msinghal34.pinlockview.core.PinEntryEngine;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Guards the key press and rebind paths against allocations, which end up as GC pauses on the lock screen.
+ * Each budget is the number of bytes a single operation may allocate on average.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class KeypressAllocationTest {
+
+    private static final int RUNS = 10_000;
+
+    private static final long ENGINE_KEY_PRESS_BUDGET = 0;
+    private static final long NUMBER_CLICK_BUDGET = 0;
+    private static final long DELETE_CLICK_BUDGET = 0;
+    private static final long RESET_BUDGET = 0;
+    private static final long REBIND_BUDGET = 0;
+
+    private PinLockView mPinLockView;
+    private PinInputController mInputController;
+
+    @Before
+    public void setUp() {
+        AllocationCounter.assumeSupported();
+
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        LinearLayout root = new LinearLayout(activity);
+        root.setOrientation(LinearLayout.VERTICAL);
+        IndicatorDots indicatorDots = new IndicatorDots(activity);
+        mPinLockView = new PinLockView(activity);
+        root.addView(indicatorDots);
+        root.addView(mPinLockView);
+        activity.setContentView(root);
+
+        mPinLockView.disableVibration();
+        mPinLockView.attachIndicatorDots(indicatorDots);
+        mPinLockView.setPinSequenceListener(new PinSequenceListener() {
+            @Override
+            public boolean onComplete(CharSequence pin) {
+                return true;
+            }
+
+            @Override
+            public void onEmpty() {
+            }
+
+            @Override
+            public void onPinChange(int pinLength, CharSequence intermediatePin) {
+            }
+        });
+
+        root.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+        root.layout(0, 0, 1080, 1920);
+        shadowOf(Looper.getMainLooper()).idle();
+        mInputController = mPinLockView.getInputController();
+    }
+
+    @Test
+    public void enginePressDigitAndDelete_withinBudget() {
+        PinEntryEngine engine = new PinEntryEngine(4);
+        engine.setListener(new PinEntryEngine.Listener() {
+            @Override
+            public void onLengthChanged(int length) {
+            }
+
+            @Override
+            public void onPinChange(int length) {
+            }
+
+            @Override
+            public void onEmpty() {
+            }
+
+            @Override
+            public boolean onComplete(boolean repeated) {
+                return true;
+            }
+        });
+
+        // Goes through every transition of the buffer, completion and wipe included
+        long bytes = AllocationCounter.bytesPerRun(RUNS, () -> {
+            engine.pressDigit(1);
+            engine.pressDelete();
+            engine.pressDelete();
+            engine.pressDigit(2);
+            engine.pressDigit(3);
+            engine.pressDigit(4);
+            engine.pressDigit(5);
+        });
+        assertWithinBudget("PinEntryEngine key presses", ENGINE_KEY_PRESS_BUDGET, bytes);
+    }
+
+    @Test
+    public void numberClick_withinBudget() {
+        long bytes = AllocationCounter.bytesPerRun(RUNS, () -> {
+            mInputController.onNumberClicked(1);
+            mInputController.reset();
+        });
+        assertWithinBudget("onNumberClicked", NUMBER_CLICK_BUDGET, bytes);
+    }
+
+    @Test
+    public void deleteClick_withinBudget() {
+        mInputController.onNumberClicked(1);
+        long bytes = AllocationCounter.bytesPerRun(RUNS, () -> {
+            mInputController.onNumberClicked(2);
+            mInputController.onDeleteClicked();
+        });
+        assertWithinBudget("onDeleteClicked", DELETE_CLICK_BUDGET, bytes);
+    }
+
+    @Test
+    public void resetPinLockView_withinBudget() {
+        long bytes = AllocationCounter.bytesPerRun(RUNS, () -> {
+            mInputController.onNumberClicked(1);
+            mPinLockView.resetPinLockView();
+        });
+        assertWithinBudget("resetPinLockView", RESET_BUDGET, bytes);
+    }
+
+    @Test
+    public void fullAdapterRebind_withinBudget() {
+        PinLockAdapter adapter = (PinLockAdapter) mPinLockView.getAdapter();
+        int childCount = mPinLockView.getChildCount();
+        assertTrue("The keypad has no keys laid out", childCount > 0);
+        List<Object> noPayloads = Collections.emptyList();
+
+        long bytes = AllocationCounter.bytesPerRun(RUNS, () -> {
+            for (int i = 0; i < childCount; i++) {
+                RecyclerView.ViewHolder holder = mPinLockView.getChildViewHolder(mPinLockView.getChildAt(i));
+                adapter.onBindViewHolder(holder, holder.getBindingAdapterPosition(), noPayloads);
+            }
+        });
+        assertWithinBudget("PinLockAdapter rebind", REBIND_BUDGET, bytes);
+    }
+
+    private static void assertWithinBudget(String operation, long budget, long bytes) {
+        assertTrue(operation + " allocates " + bytes + " bytes per run, over its budget of " + budget, bytes <= budget);
+    }
+}